@@ -0,0 +1,236 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.util.Assert;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Aggregate the joined parent/child rows to the parent objects with child collections in a single pass.
+ * The parent rows are grouped by the identity column, the child columns are named with the collection
+ * property prefix (items.name, items.price).
+ * <pre>
+ * List&lt;Order&gt; orders = query(sql, params, Transformers.toAggregate(Order.class, "ID")
+ *          .collection("items", OrderItem.class, "items.id"));
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class AggregateBeanExtractor<T> implements ResultSetExtractor<List<T>> {
+    private final Class<T> clazz;
+    private final String identityColumn;
+    private final List<ChildCollection> children = new ArrayList<>();
+
+    public AggregateBeanExtractor(Class<T> clazz, String identityColumn) {
+        this.clazz = clazz;
+        this.identityColumn = identityColumn;
+    }
+
+    /**
+     * Add the child collection property, the child columns are the columns start with property name and dot
+     * @param property The collection property of the parent class
+     * @param childClass The child class
+     * @return This extractor
+     */
+    public AggregateBeanExtractor<T> collection(String property, Class<?> childClass) {
+        return collection(property, childClass, null);
+    }
+
+    /**
+     * Add the child collection property, the child columns are the columns start with property name and dot
+     * @param property The collection property of the parent class
+     * @param childClass The child class
+     * @param childIdentityColumn The child identity column for de-duplicate and skip null child (LEFT JOIN)
+     * @return This extractor
+     */
+    public AggregateBeanExtractor<T> collection(String property, Class<?> childClass, String childIdentityColumn) {
+        PropertyDescriptor pd = BeanUtils.getPropertyDescriptor(clazz, property);
+        Assert.state(pd != null && pd.getReadMethod() != null && Collection.class.isAssignableFrom(pd.getPropertyType()),
+                "Property '" + property + "' is not readable collection of " + clazz.getName());
+        children.add(new ChildCollection(pd, childClass, childIdentityColumn));
+        return this;
+    }
+
+    @Override
+    public List<T> extractData(ResultSet rs) throws SQLException {
+        // the mappers and column indexes of this call, the extractor can be shared by the threads
+        NestedBeanMapper<T> parentMapper = new NestedBeanMapper<>(clazz);
+        List<ChildReader> readers = new ArrayList<>(children.size());
+        for (ChildCollection child : children) {
+            parentMapper.exclude(child.prefix);
+            readers.add(child.newReader(rs));
+        }
+
+        int identityIndex = rs.findColumn(identityColumn);
+        boolean numericIdentity = isIntegral(rs.getMetaData(), identityIndex);
+        LongIdentityMap<Node<T>> longNodes = new LongIdentityMap<>(256);
+        Map<Object, Node<T>> objectNodes = numericIdentity ? null : new HashMap<>();
+
+        List<T> results = new ArrayList<>();
+        int rowNum = 0;
+        while (rs.next()) {
+            Node<T> node;
+            if (numericIdentity) {
+                long key = rs.getLong(identityIndex);
+                boolean nullKey = rs.wasNull();
+                node = nullKey ? null : longNodes.get(key);
+                if (node == null) {
+                    node = new Node<>(parentMapper.mapRow(rs, results.size()), children.size());
+                    results.add(node.bean);
+                    if (!nullKey) {
+                        longNodes.put(key, node);
+                    }
+                }
+            } else {
+                Object key = rs.getObject(identityIndex);
+                node = (key == null) ? null : objectNodes.get(key);
+                if (node == null) {
+                    node = new Node<>(parentMapper.mapRow(rs, results.size()), children.size());
+                    results.add(node.bean);
+                    if (key != null) {
+                        objectNodes.put(key, node);
+                    }
+                }
+            }
+
+            for (int i = 0; i < readers.size(); i++) {
+                readers.get(i).addChild(rs, rowNum, node, i);
+            }
+            rowNum++;
+        }
+
+        return results;
+    }
+
+    private static boolean isIntegral(ResultSetMetaData metaData, int column) throws SQLException {
+        switch (metaData.getColumnType(column)) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                return true;
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                return metaData.getScale(column) == 0 && metaData.getPrecision(column) > 0
+                        && metaData.getPrecision(column) <= 18;
+            default:
+                return false;
+        }
+    }
+
+    private static final class Node<T> {
+        private final T bean;
+        private final Set<?>[] childKeys;
+
+        private Node(T bean, int totalChildren) {
+            this.bean = bean;
+            this.childKeys = new Set<?>[totalChildren];
+        }
+    }
+
+    private static final class ChildCollection {
+        private final PropertyDescriptor descriptor;
+        private final String prefix;
+        private final Class<?> childClass;
+        private final String identityColumn;
+
+        private ChildCollection(PropertyDescriptor descriptor, Class<?> childClass, String identityColumn) {
+            this.descriptor = descriptor;
+            this.prefix = descriptor.getName() + ".";
+            this.childClass = childClass;
+            this.identityColumn = identityColumn;
+        }
+
+        private ChildReader newReader(ResultSet rs) throws SQLException {
+            int identityIndex = (identityColumn == null) ? 0 : rs.findColumn(identityColumn);
+            return new ChildReader(this, new NestedBeanMapper<>(childClass, prefix), identityIndex);
+        }
+
+        @SuppressWarnings("unchecked")
+        private Collection<Object> getCollection(Object parent) {
+            try {
+                Collection<Object> values = (Collection<Object>) descriptor.getReadMethod().invoke(parent);
+                if (values == null) {
+                    Assert.state(descriptor.getWriteMethod() != null,
+                            "Property '" + descriptor.getName() + "' is null and not writable");
+                    values = Set.class.isAssignableFrom(descriptor.getPropertyType())
+                            ? new LinkedHashSet<>() : new ArrayList<>();
+                    descriptor.getWriteMethod().invoke(parent, values);
+                }
+                return values;
+            } catch (IllegalAccessException | InvocationTargetException ex) {
+                throw new IllegalStateException("Cannot access property '" + descriptor.getName() + "'", ex);
+            }
+        }
+    }
+
+    /**
+     * The child collection state of one extractData call (the mapper and the identity column index)
+     */
+    private static final class ChildReader {
+        private final ChildCollection collection;
+        private final NestedBeanMapper<?> mapper;
+        private final int identityIndex;
+
+        private ChildReader(ChildCollection collection, NestedBeanMapper<?> mapper, int identityIndex) {
+            this.collection = collection;
+            this.mapper = mapper;
+            this.identityIndex = identityIndex;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void addChild(ResultSet rs, int rowNum, Node<?> node, int inx) throws SQLException {
+            if (identityIndex > 0) {
+                Object key = rs.getObject(identityIndex);
+                if (key == null) {
+                    return;
+                }
+                if (key instanceof BigDecimal) {
+                    key = ((BigDecimal) key).stripTrailingZeros();
+                }
+                Set<Object> keys = (Set<Object>) node.childKeys[inx];
+                if (keys == null) {
+                    keys = new HashSet<>();
+                    node.childKeys[inx] = keys;
+                }
+                if (!keys.add(key)) {
+                    return;
+                }
+            }
+
+            Object child = mapper.mapRow(rs, rowNum);
+            collection.getCollection(node.bean).add(child);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Column view of a Java Bean class, the readable simple properties with the column name
+ * (customerId to CUSTOMER_ID). The metadata is created once per class and shared,
+ * the properties are read through cached MethodHandle getters.
+ * @author supot.jdev
+ * @version 1.0
+ */
+public final class BeanColumns {
+    private static final Map<Class<?>, BeanColumns> CACHE = new ConcurrentHashMap<>();
+
+    private final Class<?> beanClass;
+    private final List<Column> columns;
+    private final Map<String, Column> names;
+
+    private BeanColumns(Class<?> beanClass) {
+        this.beanClass = beanClass;
+        this.columns = Collections.unmodifiableList(createColumns(beanClass));
+        this.names = new HashMap<>(columns.size() * 4);
+        for (Column col : columns) {
+            names.putIfAbsent(col.getName().toLowerCase(Locale.ROOT), col);
+            names.putIfAbsent(col.getColumn().toLowerCase(Locale.ROOT), col);
+        }
+    }
+
+    /**
+     * Get the column metadata of the class (cached)
+     * @param clazz The Java Bean class
+     * @return The column metadata
+     */
+    public static BeanColumns of(Class<?> clazz) {
+        return CACHE.computeIfAbsent(clazz, BeanColumns::new);
+    }
+
+    public Class<?> getBeanClass() {
+        return beanClass;
+    }
+
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    public int size() {
+        return columns.size();
+    }
+
+    /**
+     * Get the column by column name or property name (case-insensitive)
+     * @param name The column name or property name
+     * @return The column, null when not found
+     */
+    public Column getColumn(String name) {
+        Column col = names.get(name);
+        return (col != null) ? col : names.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Convert the property name to column name (customerId to CUSTOMER_ID)
+     * @param property The property name
+     * @return The column name
+     */
+    public static String toColumnName(String property) {
+        StringBuilder sb = new StringBuilder(property.length() + 8);
+        for (int i = 0; i < property.length(); i++) {
+            char ch = property.charAt(i);
+            if (Character.isUpperCase(ch) && i > 0) {
+                sb.append('_');
+            }
+            sb.append(Character.toUpperCase(ch));
+        }
+        return sb.toString();
+    }
+
+    private static List<Column> createColumns(Class<?> clazz) {
+        Map<String, PropertyDescriptor> descriptors = new LinkedHashMap<>();
+        for (PropertyDescriptor pd : BeanUtils.getPropertyDescriptors(clazz)) {
+            Method getter = pd.getReadMethod();
+            if (getter == null || "class".equals(pd.getName())
+                    || !BeanUtils.isSimpleValueType(pd.getPropertyType())) {
+                continue;
+            }
+            descriptors.put(pd.getName(), pd);
+        }
+
+        List<Column> result = new ArrayList<>(descriptors.size());
+        for (String name : declaredFieldNames(clazz)) {
+            PropertyDescriptor pd = descriptors.remove(name);
+            if (pd != null) {
+                result.add(new Column(pd));
+            }
+        }
+        for (PropertyDescriptor pd : descriptors.values()) {
+            result.add(new Column(pd));
+        }
+        return result;
+    }
+
+    private static List<String> declaredFieldNames(Class<?> clazz) {
+        List<String> names = new ArrayList<>();
+        if (clazz == null || Object.class.equals(clazz)) {
+            return names;
+        }
+        names.addAll(declaredFieldNames(clazz.getSuperclass()));
+        for (Field field : clazz.getDeclaredFields()) {
+            names.add(field.getName());
+        }
+        return names;
+    }
+
+    /**
+     * The readable property of the Java Bean with the column name
+     */
+    public static final class Column {
+        private final String name;
+        private final String column;
+        private final Class<?> type;
+        private final int sqlType;
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        private Column(PropertyDescriptor pd) {
+            this.name = pd.getName();
+            this.column = toColumnName(pd.getName());
+            this.type = pd.getPropertyType();
+            this.sqlType = Enum.class.isAssignableFrom(type) ? Types.VARCHAR
+                    : StatementCreatorUtils.javaTypeToSqlParameterType(type);
+            this.getter = createHandle(pd.getReadMethod(), MethodType.methodType(Object.class, Object.class));
+            this.setter = (pd.getWriteMethod() == null) ? null
+                    : createHandle(pd.getWriteMethod(), MethodType.methodType(void.class, Object.class, Object.class));
+        }
+
+        private static MethodHandle createHandle(Method method, MethodType type) {
+            try {
+                method.setAccessible(true);
+                return MethodHandles.lookup().unreflect(method).asType(type);
+            } catch (IllegalAccessException | RuntimeException ex) {
+                throw new IllegalStateException("Cannot access method " + method, ex);
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getColumn() {
+            return column;
+        }
+
+        public Class<?> getType() {
+            return type;
+        }
+
+        public int getSqlType() {
+            return sqlType;
+        }
+
+        /**
+         * Read the property value from the bean (enum value as name)
+         * @param bean The Java Bean
+         * @return The property value
+         */
+        public Object getValue(Object bean) {
+            Object value;
+            try {
+                value = (Object) getter.invokeExact(bean);
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new IllegalStateException("Cannot read property '" + name + "' of "
+                        + bean.getClass().getName(), ex);
+            }
+            if (value instanceof Enum<?>) {
+                return ((Enum<?>) value).name();
+            }
+            return value;
+        }
+
+        public boolean isWritable() {
+            return setter != null;
+        }
+
+        /**
+         * Write the property value to the bean, the value must be the property type (or the wrapper of primitive)
+         * @param bean The Java Bean
+         * @param value The property value
+         */
+        public void setValue(Object bean, Object value) {
+            if (setter == null) {
+                throw new IllegalStateException("Property '" + name + "' of " + bean.getClass().getName()
+                        + " is read-only");
+            }
+            try {
+                setter.invokeExact(bean, value);
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new IllegalStateException("Cannot write property '" + name + "' of "
+                        + bean.getClass().getName(), ex);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "[name=" + name + ", column=" + column + ", type=" + type.getName() + "]";
+        }
+    }
+}
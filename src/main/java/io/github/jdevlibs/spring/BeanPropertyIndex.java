@@ -0,0 +1,216 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring;
+
+import io.github.jdevlibs.utils.bean.NestedSetter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+
+import java.beans.PropertyDescriptor;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the writable properties of a class by the normalized name (case-insensitive, without underscore),
+ * the nested properties are indexed with the dot prefix (address.city) and flatten name (ADDRESS_CITY).
+ * The index is created once per class and shared by all mappers, the column label is resolved once.
+ * @author supot.jdev
+ * @version 1.0
+ */
+public final class BeanPropertyIndex {
+    private static final Logger logger = LoggerFactory.getLogger(BeanPropertyIndex.class);
+    private static final Map<Class<?>, BeanPropertyIndex> CACHE = new ConcurrentHashMap<>();
+    private static final int MAX_NESTED_DEPTH = 3;
+    private static final int MAX_COLUMN_LABELS = 1024;
+    private static final int MAX_UNMAPPED_COLUMNS = 256;
+
+    private final Class<?> beanClass;
+    private final Map<String, String> properties;
+    private final BoundedCache<String, Optional<NestedSetter>> setters = new BoundedCache<>(MAX_COLUMN_LABELS);
+    private final Map<String, Optional<NestedSetter>> pathSetters = new ConcurrentHashMap<>();
+    private final BoundedCache<String, Boolean> unmappedColumns = new BoundedCache<>(MAX_UNMAPPED_COLUMNS);
+
+    private BeanPropertyIndex(Class<?> beanClass) {
+        this.beanClass = beanClass;
+        Map<String, String> index = new HashMap<>();
+        Set<String> conflicts = new HashSet<>();
+        indexProperties(beanClass, "", "", 0, new HashSet<>(), index, conflicts);
+        this.properties = Collections.unmodifiableMap(index);
+    }
+
+    /**
+     * Get the property index of the class (cached)
+     * @param clazz The target class
+     * @return The property index
+     */
+    public static BeanPropertyIndex of(Class<?> clazz) {
+        return CACHE.computeIfAbsent(clazz, BeanPropertyIndex::new);
+    }
+
+    /**
+     * Normalize the column or property name (CUSTOMER_ID, customerId and customer_id to customerid)
+     * @param name The column or property name
+     * @return The normalized name
+     */
+    public static String normalize(String name) {
+        StringBuilder sb = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char ch = name.charAt(i);
+            if (ch != '_' && ch != ' ') {
+                sb.append(Character.toLowerCase(ch));
+            }
+        }
+        return sb.toString();
+    }
+
+    public Class<?> getBeanClass() {
+        return beanClass;
+    }
+
+    /**
+     * Get the property path of the column label
+     * @param column The column label
+     * @return The property path (address.city), null when cannot map
+     */
+    public String getPropertyPath(String column) {
+        return properties.get(normalize(column));
+    }
+
+    /**
+     * Get all indexed property paths
+     * @return The property paths
+     */
+    public Collection<String> getPropertyPaths() {
+        return new HashSet<>(properties.values());
+    }
+
+    /**
+     * Get the setter of the column label, resolved once and cached.
+     * The unmapped column is reported (debug) once per class, the cached column labels are bounded.
+     * @param column The column label
+     * @return The setter, null when cannot map
+     */
+    public NestedSetter getSetter(String column) {
+        Optional<NestedSetter> setter = setters.get(column);
+        if (setter == null) {
+            setter = Optional.ofNullable(resolveSetter(column));
+            setters.putIfAbsent(column, setter);
+            if (!setter.isPresent() && unmappedColumns.putIfAbsent(column, Boolean.TRUE)) {
+                logger.debug("Column '{}' is not mapped to any property of {}", column, beanClass.getName());
+            }
+        }
+        return setter.orElse(null);
+    }
+
+    /**
+     * Resolve the setters of all indexed properties (warm-up), the later column labels
+     * of the same property reuse the resolved setter
+     * @return Total resolved setters
+     */
+    public int preload() {
+        int total = 0;
+        for (String path : getPropertyPaths()) {
+            if (getPathSetter(path) != null) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Get the columns that were resolved and cannot map to any property (the recent columns, bounded)
+     * @return The unmapped column labels
+     */
+    public Set<String> getUnmappedColumns() {
+        return unmappedColumns.keySet();
+    }
+
+    private NestedSetter resolveSetter(String column) {
+        String path = getPropertyPath(column);
+        NestedSetter setter = (path != null) ? getPathSetter(path) : null;
+        if (setter == null) {
+            setter = NestedSetter.create(beanClass, column);
+        }
+        if (setter == null || setter.getPropertyType() == null) {
+            return null;
+        }
+        return setter;
+    }
+
+    private NestedSetter getPathSetter(String path) {
+        return pathSetters.computeIfAbsent(path, key -> {
+            NestedSetter setter = NestedSetter.create(beanClass, key);
+            return (setter == null || setter.getPropertyType() == null) ? Optional.empty() : Optional.of(setter);
+        }).orElse(null);
+    }
+
+    private static void indexProperties(Class<?> clazz, String pathPrefix, String flatPrefix, int depth,
+                                        Set<Class<?>> visited, Map<String, String> index, Set<String> conflicts) {
+        visited.add(clazz);
+        for (PropertyDescriptor pd : BeanUtils.getPropertyDescriptors(clazz)) {
+            if ("class".equals(pd.getName()) || pd.getPropertyType() == null) {
+                continue;
+            }
+
+            String path = pathPrefix + pd.getName();
+            Class<?> type = pd.getPropertyType();
+            if (pd.getWriteMethod() != null) {
+                addIndex(index, conflicts, normalize(path), path);
+                if (depth > 0) {
+                    addIndex(index, conflicts, normalize(flatPrefix + pd.getName()), path);
+                }
+            }
+
+            if (pd.getReadMethod() != null && isNestedType(type) && depth < MAX_NESTED_DEPTH
+                    && !visited.contains(type)) {
+                indexProperties(type, path + ".", flatPrefix + pd.getName(), depth + 1,
+                        visited, index, conflicts);
+            }
+        }
+        visited.remove(clazz);
+    }
+
+    private static void addIndex(Map<String, String> index, Set<String> conflicts, String key, String path) {
+        if (conflicts.contains(key)) {
+            return;
+        }
+
+        String exists = index.putIfAbsent(key, path);
+        if (exists != null && !exists.equals(path)) {
+            // The shorter path wins (customerName over customer.name)
+            if (path.length() < exists.length()) {
+                index.put(key, path);
+            } else if (path.length() == exists.length()) {
+                index.remove(key);
+                conflicts.add(key);
+            }
+        }
+    }
+
+    private static boolean isNestedType(Class<?> type) {
+        return !BeanUtils.isSimpleProperty(type) && !type.isArray()
+                && !Collection.class.isAssignableFrom(type) && !Map.class.isAssignableFrom(type)
+                && !type.getName().startsWith("java.");
+    }
+}
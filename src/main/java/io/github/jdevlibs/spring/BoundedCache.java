@@ -0,0 +1,99 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * The size-bounded concurrent cache of the derived values (parsed SQL, fingerprint, projection, setter of
+ * the column label), the lookups are lock-free and the arbitrary entries are evicted when full (not LRU).
+ * Internal use of the library.
+ * @author supot.jdev
+ * @version 1.0
+ */
+public final class BoundedCache<K, V> {
+    private final ConcurrentHashMap<K, V> map;
+    private final int maxSize;
+
+    public BoundedCache(int maxSize) {
+        this.map = new ConcurrentHashMap<>(Math.min(maxSize, 1024));
+        this.maxSize = maxSize;
+    }
+
+    public V get(K key) {
+        return map.get(key);
+    }
+
+    /**
+     * Get the cached value or compute it (outside the lock, may be computed more than once)
+     * @param key The key
+     * @param function The function of the value
+     * @return The value
+     */
+    public V get(K key, Function<? super K, ? extends V> function) {
+        V value = map.get(key);
+        if (value == null) {
+            value = function.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        if (map.size() >= maxSize) {
+            evict();
+        }
+        map.put(key, value);
+    }
+
+    /**
+     * Put the value when the key is absent
+     * @param key The key
+     * @param value The value
+     * @return true when the value was put
+     */
+    public boolean putIfAbsent(K key, V value) {
+        if (map.containsKey(key)) {
+            return false;
+        }
+        if (map.size() >= maxSize) {
+            evict();
+        }
+        return map.putIfAbsent(key, value) == null;
+    }
+
+    /**
+     * Get the cached keys (read-only view)
+     * @return The keys
+     */
+    public Set<K> keySet() {
+        return Collections.unmodifiableSet(map.keySet());
+    }
+
+    private void evict() {
+        int target = maxSize - maxSize / 4;
+        Iterator<K> keys = map.keySet().iterator();
+        while (keys.hasNext() && map.size() > target) {
+            keys.next();
+            keys.remove();
+        }
+    }
+}
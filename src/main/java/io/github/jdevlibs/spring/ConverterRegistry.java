@@ -0,0 +1,337 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring;
+
+import io.github.jdevlibs.utils.Convertors;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The converters of the column value to the property type, keyed by (source type, target type).
+ * The converter is resolved once per type pair (the source super types, enum by name or ordinal,
+ * toString for String and the generic conversion as the last) and the mapper keeps the resolved converter per column.
+ * The registered converter takes precedence over the built-in converter. The built-in number converters
+ * throw TypeMismatchException when the value has a fraction or overflows the target type.
+ * <pre>
+ * ConverterRegistry.getDefault().register(String.class, Money.class, Money::parse);
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public final class ConverterRegistry {
+    private static final ConverterRegistry DEFAULT = new ConverterRegistry();
+    private static final Converter<Object, Object> IDENTITY = value -> value;
+    private static final Converter<Object, Object> TO_STRING = Object::toString;
+
+    private final Map<TypePair, Converter<Object, Object>> converters = new ConcurrentHashMap<>();
+    private final Map<TypePair, Converter<Object, Object>> resolved = new ConcurrentHashMap<>();
+
+    public ConverterRegistry() {
+        registerDefaults();
+    }
+
+    /**
+     * Get the shared registry that used by the mappers by default
+     * @return The default registry
+     */
+    public static ConverterRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Register the converter of the type pair (replace the existing converter)
+     * @param sourceType The source type (the column value or its super type)
+     * @param targetType The target property type
+     * @param converter The converter
+     * @param <S> Generic source type
+     * @param <T> Generic target type
+     */
+    @SuppressWarnings("unchecked")
+    public <S, T> void register(Class<S> sourceType, Class<T> targetType, Converter<? super S, ? extends T> converter) {
+        converters.put(new TypePair(sourceType, ClassUtils.resolvePrimitiveIfNecessary(targetType)),
+                (Converter<Object, Object>) converter);
+        resolved.clear();
+    }
+
+    /**
+     * Get the converter of the value type to the target type, resolved once and cached
+     * @param sourceType The value type
+     * @param targetType The target property type
+     * @return The converter, never null
+     */
+    public Converter<Object, Object> getConverter(Class<?> sourceType, Class<?> targetType) {
+        TypePair key = new TypePair(sourceType, targetType);
+        Converter<Object, Object> converter = resolved.get(key);
+        if (converter == null) {
+            converter = resolve(sourceType, targetType);
+            resolved.put(key, converter);
+        }
+        return converter;
+    }
+
+    /**
+     * Convert the value to the target type
+     * @param value The value
+     * @param targetType The target type
+     * @return The converted value, null when the value is null
+     */
+    public Object convert(Object value, Class<?> targetType) {
+        return (value == null) ? null : getConverter(value.getClass(), targetType).convert(value);
+    }
+
+    private Converter<Object, Object> resolve(Class<?> sourceType, Class<?> targetType) {
+        Converter<Object, Object> converter = resolveConverter(sourceType, targetType);
+        if (!targetType.isPrimitive() || converter == IDENTITY) {
+            return converter;
+        }
+        // e.g. the empty text to char or boolean
+        Object defaultValue = Array.get(Array.newInstance(targetType, 1), 0);
+        return value -> {
+            Object result = converter.convert(value);
+            return (result == null) ? defaultValue : result;
+        };
+    }
+
+    private Converter<Object, Object> resolveConverter(Class<?> sourceType, Class<?> targetType) {
+        Class<?> target = ClassUtils.resolvePrimitiveIfNecessary(targetType);
+        if (target == sourceType) {
+            return IDENTITY;
+        }
+        for (Class<?> source : superTypes(sourceType)) {
+            Converter<Object, Object> converter = converters.get(new TypePair(source, target));
+            if (converter != null) {
+                return converter;
+            }
+        }
+
+        if (target.isAssignableFrom(sourceType)) {
+            return IDENTITY;
+        } else if (target.isEnum()) {
+            Converter<Object, Object> converter = enumConverter(sourceType, target);
+            if (converter != null) {
+                return converter;
+            }
+        } else if (target == String.class) {
+            return TO_STRING;
+        }
+        return value -> Convertors.convertWithType(targetType, value);
+    }
+
+    private static Set<Class<?>> superTypes(Class<?> type) {
+        Set<Class<?>> result = new LinkedHashSet<>();
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            result.add(current);
+        }
+        Deque<Class<?>> pending = new ArrayDeque<>(result);
+        while (!pending.isEmpty()) {
+            for (Class<?> ifc : pending.poll().getInterfaces()) {
+                if (result.add(ifc)) {
+                    pending.add(ifc);
+                }
+            }
+        }
+        return result;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Converter<Object, Object> enumConverter(Class<?> sourceType, Class<?> enumType) {
+        Object[] constants = enumType.getEnumConstants();
+        if (Number.class.isAssignableFrom(sourceType)) {
+            return value -> {
+                int ordinal = ((Number) value).intValue();
+                if (ordinal < 0 || ordinal >= constants.length) {
+                    throw new IllegalArgumentException("No ordinal " + ordinal + " of " + enumType.getName());
+                }
+                return constants[ordinal];
+            };
+        } else if (CharSequence.class.isAssignableFrom(sourceType)) {
+            Map<String, Object> names = new HashMap<>(constants.length * 4);
+            for (Object constant : constants) {
+                String name = ((Enum) constant).name();
+                names.put(name, constant);
+                names.putIfAbsent(name.toUpperCase(Locale.ROOT), constant);
+            }
+            return value -> {
+                String name = value.toString().trim();
+                Object constant = names.get(name);
+                if (constant == null) {
+                    constant = names.get(name.toUpperCase(Locale.ROOT));
+                }
+                if (constant == null) {
+                    throw new IllegalArgumentException("No enum constant " + enumType.getName() + "." + name);
+                }
+                return constant;
+            };
+        }
+        return null;
+    }
+
+    private void registerDefaults() {
+        register(Number.class, Long.class, value -> toLong(value, Long.class, Long.MIN_VALUE, Long.MAX_VALUE));
+        register(Number.class, Integer.class,
+                value -> (int) toLong(value, Integer.class, Integer.MIN_VALUE, Integer.MAX_VALUE));
+        register(Number.class, Short.class,
+                value -> (short) toLong(value, Short.class, Short.MIN_VALUE, Short.MAX_VALUE));
+        register(Number.class, Byte.class, value -> (byte) toLong(value, Byte.class, Byte.MIN_VALUE, Byte.MAX_VALUE));
+        register(Number.class, Double.class, Number::doubleValue);
+        register(Number.class, Float.class, Number::floatValue);
+        register(Number.class, Boolean.class,
+                value -> toLong(value, Boolean.class, Long.MIN_VALUE, Long.MAX_VALUE) != 0);
+        register(Number.class, BigDecimal.class, value -> new BigDecimal(value.toString()));
+        register(BigDecimal.class, BigInteger.class, ConverterRegistry::toBigInteger);
+        register(Number.class, BigInteger.class,
+                value -> BigInteger.valueOf(toLong(value, BigInteger.class, Long.MIN_VALUE, Long.MAX_VALUE)));
+
+        register(Timestamp.class, LocalDateTime.class, Timestamp::toLocalDateTime);
+        register(Timestamp.class, LocalDate.class, value -> value.toLocalDateTime().toLocalDate());
+        register(Timestamp.class, Instant.class, Timestamp::toInstant);
+        register(java.sql.Date.class, LocalDate.class, java.sql.Date::toLocalDate);
+        register(java.sql.Date.class, LocalDateTime.class, value -> value.toLocalDate().atStartOfDay());
+        register(Time.class, LocalTime.class, Time::toLocalTime);
+        register(Date.class, Instant.class, value -> Instant.ofEpochMilli(value.getTime()));
+        register(Date.class, LocalDateTime.class,
+                value -> LocalDateTime.ofInstant(Instant.ofEpochMilli(value.getTime()), ZoneId.systemDefault()));
+        register(LocalDateTime.class, Timestamp.class, Timestamp::valueOf);
+        register(LocalDateTime.class, Date.class, Timestamp::valueOf);
+        register(LocalDate.class, java.sql.Date.class, java.sql.Date::valueOf);
+
+        register(String.class, Boolean.class, ConverterRegistry::toBoolean);
+        register(Character.class, Boolean.class, value -> toBoolean(value.toString()));
+        register(String.class, Character.class, value -> value.isEmpty() ? null : value.charAt(0));
+        register(String.class, Long.class, value -> Long.valueOf(value.trim()));
+        register(String.class, Integer.class, value -> Integer.valueOf(value.trim()));
+        register(String.class, BigDecimal.class, value -> new BigDecimal(value.trim()));
+    }
+
+    /**
+     * Convert the number to long without losing the fraction or the overflow (the value of the integral types
+     * as is, the others through BigDecimal)
+     * @param value The number
+     * @param targetType The target type (of the error)
+     * @param min The minimum value of the target type
+     * @param max The maximum value of the target type
+     * @return The long value
+     * @throws TypeMismatchException When the number has a fraction or is out of the range of the target type
+     */
+    static long toLong(Number value, Class<?> targetType, long min, long max) {
+        long result;
+        try {
+            if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                result = value.longValue();
+            } else if (value instanceof BigInteger) {
+                result = ((BigInteger) value).longValueExact();
+            } else if (value instanceof BigDecimal) {
+                result = ((BigDecimal) value).longValueExact();
+            } else {
+                result = new BigDecimal(value.toString()).longValueExact();
+            }
+        } catch (ArithmeticException | NumberFormatException ex) {
+            throw new TypeMismatchException(value, targetType, ex);
+        }
+        if (result < min || result > max) {
+            throw new TypeMismatchException(value, targetType,
+                    new ArithmeticException("Value " + value + " is out of range of " + targetType.getName()));
+        }
+        return result;
+    }
+
+    private static BigInteger toBigInteger(BigDecimal value) {
+        try {
+            return value.toBigIntegerExact();
+        } catch (ArithmeticException ex) {
+            throw new TypeMismatchException(value, BigInteger.class, ex);
+        }
+    }
+
+    /**
+     * Convert the flag text (CHAR(1) Y/N, T/F, 1/0 or true/false, yes/no) to boolean,
+     * the other text is converted by the lenient generic conversion (Convertors)
+     * @param value The flag text
+     * @return The boolean value, null when the text is empty (false of the primitive boolean)
+     */
+    static Boolean toBoolean(String value) {
+        String flag = value.trim();
+        if (flag.isEmpty()) {
+            return null;
+        }
+        switch (flag.toUpperCase(Locale.ROOT)) {
+            case "Y":
+            case "T":
+            case "1":
+            case "YES":
+            case "TRUE":
+                return Boolean.TRUE;
+            case "N":
+            case "F":
+            case "0":
+            case "NO":
+            case "FALSE":
+                return Boolean.FALSE;
+            default:
+                return (Boolean) Convertors.convertWithType(Boolean.class, flag);
+        }
+    }
+
+    private static final class TypePair {
+        private final Class<?> source;
+        private final Class<?> target;
+
+        private TypePair(Class<?> source, Class<?> target) {
+            this.source = source;
+            this.target = target;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TypePair)) {
+                return false;
+            }
+            TypePair other = (TypePair) o;
+            return source == other.source && target == other.target;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(source, target);
+        }
+    }
+}
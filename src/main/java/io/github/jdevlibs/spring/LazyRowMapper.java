@@ -0,0 +1,271 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.util.Assert;
+
+import java.beans.Introspector;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Map the row to the proxy of the interface (getter methods) for the wide result, the raw column values
+ * are copied to one array per row and the property is converted on the first access only.
+ * The getter is mapped to the column by the normalized name (getCustomerId to CUSTOMER_ID), the unmapped
+ * getter returns null (or the default of primitive). The LOB values are materialized (byte[] or String).
+ * The interface with the default methods is rejected (the proxy cannot invoke the default method on Java 8).
+ * <pre>
+ * List&lt;CustomerView&gt; rows = dao.queryToList(sql, params, Transformers.toLazy(CustomerView.class));
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class LazyRowMapper<T> implements RowMapper<T> {
+    private final Class<T> type;
+    private final Map<Method, String> getters = new LinkedHashMap<>();
+    private ConverterRegistry converterRegistry = ConverterRegistry.getDefault();
+    private Plan plan;
+
+    public LazyRowMapper(Class<T> type) {
+        Assert.isTrue(type.isInterface(), "The lazy row type must be an interface : " + type.getName());
+        this.type = type;
+        for (Method method : type.getMethods()) {
+            Assert.isTrue(!method.isDefault(), () -> "The lazy row type must not have default method : "
+                    + type.getName() + "." + method.getName());
+            String property = propertyName(method);
+            if (property != null) {
+                getters.put(method, property);
+            }
+        }
+    }
+
+    private static String propertyName(Method method) {
+        if (method.getParameterCount() != 0 || Modifier.isStatic(method.getModifiers())
+                || method.getReturnType() == void.class) {
+            return null;
+        }
+        String name = method.getName();
+        if (name.startsWith("get") && name.length() > 3) {
+            return Introspector.decapitalize(name.substring(3));
+        } else if (name.startsWith("is") && name.length() > 2 && method.getReturnType() == boolean.class) {
+            return Introspector.decapitalize(name.substring(2));
+        }
+        return null;
+    }
+
+    /**
+     * Set the converters of the column values, default is the shared registry
+     * @param converterRegistry The converter registry
+     * @return This mapper
+     */
+    public LazyRowMapper<T> converters(ConverterRegistry converterRegistry) {
+        this.converterRegistry = converterRegistry;
+        return this;
+    }
+
+    @Override
+    public T mapRow(ResultSet rs, int rowNumber) throws SQLException {
+        if (plan == null) {
+            plan = createPlan(rs.getMetaData());
+        }
+
+        Object[] values = new Object[plan.columnCount];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = JdbcUtils.getResultSetValue(rs, i + 1);
+        }
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                new LazyRow(plan, values)));
+    }
+
+    private Plan createPlan(ResultSetMetaData metaData) throws SQLException {
+        int total = metaData.getColumnCount();
+        Map<String, Integer> columnIndexes = new HashMap<>(total * 2);
+        String[] names = new String[total];
+        for (int i = 0; i < total; i++) {
+            names[i] = JdbcUtils.lookupColumnName(metaData, i + 1);
+            columnIndexes.putIfAbsent(BeanPropertyIndex.normalize(names[i]), i);
+        }
+
+        Map<Method, Property> mapped = new HashMap<>(getters.size() * 2);
+        int inx = 0;
+        for (Map.Entry<Method, String> getter : getters.entrySet()) {
+            Integer column = columnIndexes.get(BeanPropertyIndex.normalize(getter.getValue()));
+            mapped.put(getter.getKey(), new Property(inx++, (column == null) ? -1 : column,
+                    getter.getKey().getReturnType()));
+        }
+        return new Plan(type, names, getters.size(), mapped, converterRegistry);
+    }
+
+    /**
+     * The mapping plan of the result (column of each getter and the resolved converters), shared by the rows
+     */
+    private static final class Plan {
+        private final Class<?> type;
+        private final String[] names;
+        private final int columnCount;
+        private final int propertyCount;
+        private final Map<Method, Property> properties;
+        private final ConverterRegistry converterRegistry;
+
+        private Plan(Class<?> type, String[] names, int propertyCount, Map<Method, Property> properties,
+                     ConverterRegistry converterRegistry) {
+            this.type = type;
+            this.names = names;
+            this.columnCount = names.length;
+            this.propertyCount = propertyCount;
+            this.properties = properties;
+            this.converterRegistry = converterRegistry;
+        }
+    }
+
+    /**
+     * The getter of the interface with the column index
+     */
+    private static final class Property {
+        private final int index;
+        private final int column;
+        private final Class<?> type;
+        private final Object defaultValue;
+        private volatile Resolved resolved;
+
+        private Property(int index, int column, Class<?> type) {
+            this.index = index;
+            this.column = column;
+            this.type = type;
+            this.defaultValue = type.isPrimitive() ? defaultPrimitive(type) : null;
+        }
+
+        private Object convert(Object value, ConverterRegistry registry) {
+            if (value == null) {
+                return defaultValue;
+            }
+            // The value type of the column is stable, the converter is resolved once per column
+            Resolved current = resolved;
+            if (current == null || current.sourceType != value.getClass()) {
+                current = new Resolved(value.getClass(), registry.getConverter(value.getClass(), type));
+                resolved = current;
+            }
+            Object result = current.converter.convert(value);
+            return (result == null) ? defaultValue : result;
+        }
+
+        private static Object defaultPrimitive(Class<?> type) {
+            if (type == boolean.class) {
+                return Boolean.FALSE;
+            } else if (type == char.class) {
+                return '\0';
+            } else if (type == long.class) {
+                return 0L;
+            } else if (type == double.class) {
+                return 0d;
+            } else if (type == float.class) {
+                return 0f;
+            } else if (type == short.class) {
+                return (short) 0;
+            } else if (type == byte.class) {
+                return (byte) 0;
+            }
+            return 0;
+        }
+    }
+
+    private static final class Resolved {
+        private final Class<?> sourceType;
+        private final Converter<Object, Object> converter;
+
+        private Resolved(Class<?> sourceType, Converter<Object, Object> converter) {
+            this.sourceType = sourceType;
+            this.converter = converter;
+        }
+    }
+
+    /**
+     * The row of the proxy, the raw values and the converted properties (converted on first access)
+     */
+    private static final class LazyRow implements InvocationHandler {
+        private static final Object NOT_CONVERTED = new Object();
+
+        private final Plan plan;
+        private final Object[] values;
+        private Object[] converted;
+
+        private LazyRow(Plan plan, Object[] values) {
+            this.plan = plan;
+            this.values = values;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            Property property = plan.properties.get(method);
+            if (property != null) {
+                return get(property);
+            }
+
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return toString();
+                default:
+                    throw new UnsupportedOperationException("Lazy row of " + plan.type.getName()
+                            + " supports getter only : " + method.getName());
+            }
+        }
+
+        private Object get(Property property) {
+            if (property.column < 0) {
+                return property.defaultValue;
+            }
+            if (converted == null) {
+                converted = new Object[plan.propertyCount];
+                Arrays.fill(converted, NOT_CONVERTED);
+            }
+            Object value = converted[property.index];
+            if (value == NOT_CONVERTED) {
+                value = property.convert(values[property.column], plan.converterRegistry);
+                converted[property.index] = value;
+            }
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(plan.type.getSimpleName()).append(" [");
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append(plan.names[i]).append('=').append(values[i]);
+            }
+            return sb.append(']').toString();
+        }
+    }
+}
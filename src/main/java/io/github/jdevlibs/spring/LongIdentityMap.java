@@ -0,0 +1,87 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring;
+
+/**
+ * Open addressing hash map with primitive long key (no boxing of the identity value).
+ * @author supot.jdev
+ * @version 1.0
+ */
+final class LongIdentityMap<V> {
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+
+    LongIdentityMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2) - 1) << 1;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        int inx = indexOf(key, keys, mask);
+        return (V) values[inx];
+    }
+
+    void put(long key, V value) {
+        int inx = indexOf(key, keys, mask);
+        if (values[inx] == null) {
+            size++;
+        }
+        keys[inx] = key;
+        values[inx] = value;
+
+        if (size * 2 > keys.length) {
+            resize();
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[oldKeys.length << 1];
+        values = new Object[oldValues.length << 1];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int inx = indexOf(oldKeys[i], keys, mask);
+                keys[inx] = oldKeys[i];
+                values[inx] = oldValues[i];
+            }
+        }
+    }
+
+    private int indexOf(long key, long[] table, int tableMask) {
+        int inx = hash(key) & tableMask;
+        while (values[inx] != null && table[inx] != key) {
+            inx = (inx + 1) & tableMask;
+        }
+        return inx;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
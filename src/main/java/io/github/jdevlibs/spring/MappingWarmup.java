@@ -0,0 +1,143 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.util.ClassUtils;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Build the mapping plans of the result classes after the singletons are created (before the first request),
+ * the classes are configured or scanned from the base packages by the annotation (default MappedBean).
+ * <pre>
+ * &#64;Bean
+ * public MappingWarmup mappingWarmup() {
+ *     MappingWarmup warmup = new MappingWarmup();
+ *     warmup.setBasePackages("com.example.dto");
+ *     return warmup;
+ * }
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class MappingWarmup implements SmartInitializingSingleton {
+    private static final Logger logger = LoggerFactory.getLogger(MappingWarmup.class);
+
+    private final Set<Class<?>> classes = new LinkedHashSet<>();
+    private final List<String> basePackages = new ArrayList<>();
+    private Class<? extends Annotation> annotationType = MappedBean.class;
+    private boolean parallel = true;
+    private long warmupMillis = -1;
+    private int warmupClasses;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        warmup();
+    }
+
+    /**
+     * Scan the base packages and build the mapping plans of all classes
+     * @return The warm-up time in milliseconds
+     */
+    public long warmup() {
+        long start = System.nanoTime();
+        Set<Class<?>> targets = new LinkedHashSet<>(classes);
+        targets.addAll(scan());
+        long millis = Transformers.preload(targets, parallel);
+
+        warmupClasses = targets.size();
+        warmupMillis = (System.nanoTime() - start) / 1_000_000L;
+        logger.info("Mapping warm-up of {} classes took {} ms (mapping {} ms)", warmupClasses, warmupMillis, millis);
+        return warmupMillis;
+    }
+
+    private Set<Class<?>> scan() {
+        Set<Class<?>> result = new LinkedHashSet<>();
+        if (basePackages.isEmpty()) {
+            return result;
+        }
+
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(annotationType));
+        ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+        for (String basePackage : basePackages) {
+            for (BeanDefinition definition : scanner.findCandidateComponents(basePackage)) {
+                try {
+                    result.add(ClassUtils.forName(definition.getBeanClassName(), classLoader));
+                } catch (ClassNotFoundException | LinkageError ex) {
+                    logger.warn("Cannot load mapped class {} : {}", definition.getBeanClassName(), ex.getMessage());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Add the result classes to warm up
+     * @param classes The result classes
+     */
+    public void setClasses(Class<?>... classes) {
+        this.classes.addAll(Arrays.asList(classes));
+    }
+
+    /**
+     * Set the packages to scan for the annotated result classes
+     * @param basePackages The base packages
+     */
+    public void setBasePackages(String... basePackages) {
+        this.basePackages.addAll(Arrays.asList(basePackages));
+    }
+
+    /**
+     * Set the annotation of the result classes to scan (e.g. javax.persistence.Entity), default is MappedBean
+     * @param annotationType The annotation type
+     */
+    public void setAnnotationType(Class<? extends Annotation> annotationType) {
+        this.annotationType = annotationType;
+    }
+
+    /**
+     * Build the classes in parallel (default true)
+     * @param parallel true for parallel
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Get the time of last warm-up (scan and mapping)
+     * @return The warm-up time in milliseconds, -1 when not warmed up
+     */
+    public long getWarmupMillis() {
+        return warmupMillis;
+    }
+
+    public int getWarmupClasses() {
+        return warmupClasses;
+    }
+}
@@ -16,24 +16,25 @@
  */
 package io.github.jdevlibs.spring;
 
-import io.github.jdevlibs.utils.ClassUtils;
-import io.github.jdevlibs.utils.Convertors;
+import io.github.jdevlibs.spring.jdbc.Lobs;
 import io.github.jdevlibs.utils.JdbcUtils;
 import io.github.jdevlibs.utils.bean.NestedSetter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
+import org.springframework.core.convert.converter.Converter;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.util.Assert;
 
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 /**
+ * The properties of type InputStream, Reader, Blob or Clob are mapped to the LOB stream or locator
+ * (not materialized), the stream is valid while the ResultSet is open.
  * @author supot.jdev
  * @version 1.0
  */
@@ -41,11 +42,46 @@ public class NestedBeanMapper<T> implements RowMapper<T> {
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
     private final Class<T> clazz;
-    private Map<String, NestedSetter> setters;
+    private final String prefix;
+    private final List<String> excludePrefixes = new ArrayList<>();
+    private NestedSetter[] setters;
     private List<JdbcUtils.ColumnInfo> columns;
+    private ConverterRegistry converterRegistry = ConverterRegistry.getDefault();
+    private Class<?>[] sourceTypes;
+    private Converter<Object, Object>[] converters;
 
     public NestedBeanMapper(Class<T> clazz) {
+        this(clazz, null);
+    }
+
+    /**
+     * Mapping only the columns start with the prefix (items.name to property name)
+     * @param clazz The target class
+     * @param prefix The column prefix (case-insensitive), null for all columns
+     */
+    public NestedBeanMapper(Class<T> clazz, String prefix) {
         this.clazz = clazz;
+        this.prefix = prefix;
+    }
+
+    /**
+     * Skip the columns start with the prefix (case-insensitive)
+     * @param columnPrefix The column prefix
+     * @return This mapper
+     */
+    public NestedBeanMapper<T> exclude(String columnPrefix) {
+        excludePrefixes.add(columnPrefix);
+        return this;
+    }
+
+    /**
+     * Set the converters of the column values, default is the shared registry
+     * @param converterRegistry The converter registry
+     * @return This mapper
+     */
+    public NestedBeanMapper<T> converters(ConverterRegistry converterRegistry) {
+        this.converterRegistry = converterRegistry;
+        return this;
     }
 
     @Override
@@ -54,57 +90,137 @@ public class NestedBeanMapper<T> implements RowMapper<T> {
         this.createCachedSetters(rs);
 
         T result = BeanUtils.instantiateClass(clazz);
-        for (JdbcUtils.ColumnInfo col : columns) {
-            NestedSetter setter = setters.get(col.getColumn());
-            if (setter == null || setter.getPropertyType() == null) {
+        for (int i = 0; i < setters.length; i++) {
+            NestedSetter setter = setters[i];
+            if (setter == null) {
                 continue;
             }
-            Object value = JdbcUtils.getResultSetValue(rs, col.getColumn(), col.getType());
-            if (value == null) {
-                continue;
-            }
-            
-            Class<?> propertyType = setter.getPropertyType();
-            Class<?> resultType = value.getClass();
-            if (logger.isDebugEnabled() && rowNumber == 0) {
-                logger.debug("Mapping column '{}' to property '{}' of type {} from type {}", col.getColumn()
-                        , setter.getName(), propertyType, resultType);
-            }
+            setValue(result, i, readValue(rs, i), rowNumber);
+        }
+
+        return result;
+    }
+
+    /**
+     * Read the raw values of the mapped columns of current row (the unmapped column value is null)
+     * @param rs The ResultSet
+     * @return The column values, index by column
+     * @throws SQLException When cannot read the value
+     */
+    public Object[] readValues(ResultSet rs) throws SQLException {
+        Assert.state(this.clazz != null, "Mapped class was not specified");
+        this.createCachedSetters(rs);
 
-            if (propertyType.equals(resultType)) {
-                setter.setValue(result, value);
-            } else {
-                if (ClassUtils.isString(propertyType)) {
-                    setter.setValue(result, value.toString());
-                } else {
-                    value = Convertors.convertWithType(propertyType, value);
-                    setter.setValue(result, value);
-                }
+        Object[] values = new Object[setters.length];
+        for (int i = 0; i < setters.length; i++) {
+            if (setters[i] != null) {
+                values[i] = readValue(rs, i);
             }
         }
+        return values;
+    }
 
+    /**
+     * Map the raw values that read by readValues(ResultSet) to the target class
+     * @param values The column values
+     * @return The result target class
+     */
+    public T mapValues(Object[] values) {
+        Assert.state(setters != null, "The column values were not read by this mapper");
+
+        T result = BeanUtils.instantiateClass(clazz);
+        for (int i = 0; i < setters.length; i++) {
+            if (setters[i] != null) {
+                setValue(result, i, values[i], -1);
+            }
+        }
         return result;
     }
 
+    private Object readValue(ResultSet rs, int inx) throws SQLException {
+        JdbcUtils.ColumnInfo col = columns.get(inx);
+        Class<?> propertyType = setters[inx].getPropertyType();
+        if (Lobs.isStreamType(propertyType)) {
+            return Lobs.getStream(rs, col.getColumn(), propertyType);
+        }
+        return JdbcUtils.getResultSetValue(rs, col.getColumn(), col.getType());
+    }
+
+    private void setValue(T result, int inx, Object value, int rowNumber) {
+        if (value == null) {
+            return;
+        }
+
+        NestedSetter setter = setters[inx];
+        Class<?> propertyType = setter.getPropertyType();
+        Class<?> resultType = value.getClass();
+        if (logger.isDebugEnabled() && rowNumber == 0) {
+            logger.debug("Mapping column '{}' to property '{}' of type {} from type {}", columns.get(inx).getColumn()
+                    , setter.getName(), propertyType, resultType);
+        }
+
+        if (propertyType.equals(resultType) || Lobs.isStreamType(propertyType)) {
+            setter.setValue(result, value);
+        } else {
+            setter.setValue(result, getConverter(inx, resultType, propertyType).convert(value));
+        }
+    }
+
+    private Converter<Object, Object> getConverter(int inx, Class<?> resultType, Class<?> propertyType) {
+        // The value type of the column is stable, the converter is resolved once per column
+        if (sourceTypes[inx] != resultType) {
+            converters[inx] = converterRegistry.getConverter(resultType, propertyType);
+            sourceTypes[inx] = resultType;
+        }
+        return converters[inx];
+    }
+
     private void createCachedSetters(ResultSet rs) throws SQLException {
         if (columns == null || setters == null) {
             ResultSetMetaData metaData = rs.getMetaData();
             columns = JdbcUtils.getColumInfo(metaData);
             if (setters == null) {
                 setters = createSetters(clazz);
+                createConverters();
             }
         }
     }
 
-    private Map<String, NestedSetter> createSetters(Class<?> resultClass) {
-        Map<String, NestedSetter> result = new HashMap<>(columns.size());
-        for (JdbcUtils.ColumnInfo col : columns) {
-            NestedSetter setter = NestedSetter.create(resultClass, col.getColumn());
-            if (setter != null) {
-                result.put(col.getColumn(), setter);
+    @SuppressWarnings("unchecked")
+    private void createConverters() {
+        sourceTypes = new Class<?>[setters.length];
+        converters = (Converter<Object, Object>[]) new Converter<?, ?>[setters.length];
+    }
+
+    private NestedSetter[] createSetters(Class<?> resultClass) {
+        BeanPropertyIndex index = BeanPropertyIndex.of(resultClass);
+        NestedSetter[] result = new NestedSetter[columns.size()];
+        for (int i = 0; i < result.length; i++) {
+            String property = toPropertyPath(columns.get(i).getColumn());
+            if (property != null) {
+                result[i] = index.getSetter(property);
             }
         }
 
         return result;
     }
+
+    private String toPropertyPath(String column) {
+        for (String exclude : excludePrefixes) {
+            if (startsWithIgnoreCase(column, exclude)) {
+                return null;
+            }
+        }
+        if (prefix == null) {
+            return column;
+        }
+        if (!startsWithIgnoreCase(column, prefix) || column.length() == prefix.length()) {
+            return null;
+        }
+        return column.substring(prefix.length());
+    }
+
+    private static boolean startsWithIgnoreCase(String value, String prefix) {
+        return value.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
 }
@@ -18,6 +18,10 @@ package io.github.jdevlibs.spring;
 
 import org.springframework.jdbc.core.RowMapper;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
 /**
  * @author supot.jdev
  * @version 1.0
@@ -35,4 +39,57 @@ public class Transformers {
     public static <T> RowMapper<T> toBean(Class<T> clazz) {
         return new NestedBeanMapper<>(clazz);
     }
+
+    /**
+     * Transformer query result to the lazy proxy of the interface, the properties are converted on first access
+     * (for the wide result that the callers read few properties)
+     * @param type The interface with getter methods
+     * @return The lazy row mapper
+     * @param <T> Generic interface
+     */
+    public static <T> RowMapper<T> toLazy(Class<T> type) {
+        return new LazyRowMapper<>(type);
+    }
+
+    /**
+     * Transformer joined parent/child query result to the parent POJO with child collections
+     * @param clazz The parent class for transformer
+     * @param identityColumn The parent identity column for grouping rows
+     * @return The aggregate extractor, add the child collection by collection(...)
+     * @param <T> Generic parent class
+     */
+    public static <T> AggregateBeanExtractor<T> toAggregate(Class<T> clazz, String identityColumn) {
+        return new AggregateBeanExtractor<>(clazz, identityColumn);
+    }
+
+    /**
+     * Build and cache the mapping plans (property index, setters and bean columns) of the classes,
+     * the first query of the classes does not pay for reflection
+     * @param classes The result classes
+     * @return The warm-up time in milliseconds
+     */
+    public static long preload(Class<?>... classes) {
+        return preload(Arrays.asList(classes), false);
+    }
+
+    /**
+     * Build and cache the mapping plans (property index, setters and bean columns) of the classes
+     * @param classes The result classes
+     * @param parallel true for build the classes in parallel (common fork-join pool)
+     * @return The warm-up time in milliseconds
+     */
+    public static long preload(Collection<Class<?>> classes, boolean parallel) {
+        long start = System.nanoTime();
+        if (parallel) {
+            classes.parallelStream().forEach(Transformers::preload);
+        } else {
+            classes.forEach(Transformers::preload);
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static void preload(Class<?> clazz) {
+        BeanPropertyIndex.of(clazz).preload();
+        BeanColumns.of(clazz);
+    }
 }
@@ -0,0 +1,237 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc;
+
+import io.github.jdevlibs.spring.BeanColumns;
+import io.github.jdevlibs.spring.jdbc.enums.Dialects;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * SQL statement builder for bulk insert/upsert of Java Bean collection.
+ * @author supot.jdev
+ * @version 1.0
+ */
+final class BulkStatements {
+    private final Dialects dialect;
+    private final String table;
+    private final List<BeanColumns.Column> columns;
+    private final List<String> keys;
+    private final List<BeanColumns.Column> keyColumns;
+
+    /**
+     * @param dialect The database dialect
+     * @param table The table name
+     * @param beanColumns The columns of the bean class
+     * @param keyColumns The key columns or properties (CUSTOMER_ID or customerId)
+     * @throws IllegalArgumentException When the key is not a column of the bean class
+     */
+    BulkStatements(Dialects dialect, String table, BeanColumns beanColumns, String... keyColumns) {
+        this.dialect = dialect;
+        this.table = table;
+        this.columns = beanColumns.getColumns();
+        this.keys = new ArrayList<>(keyColumns.length);
+        this.keyColumns = new ArrayList<>(keyColumns.length);
+        for (String key : keyColumns) {
+            BeanColumns.Column column = beanColumns.getColumn(key);
+            if (column == null) {
+                throw new IllegalArgumentException("Key column '" + key + "' is not a property of "
+                        + beanColumns.getBeanClass().getName());
+            }
+            keys.add(column.getColumn());
+            this.keyColumns.add(column);
+        }
+    }
+
+    /**
+     * Remove the items of the duplicate key for upsert, the last item of each key wins (at its position).
+     * The multi-row statement cannot affect the same row twice (PostgreSQL ON CONFLICT, MS SQL Server MERGE).
+     * The items with a null key value are kept (the null key never matches).
+     * @param items The items
+     * @return The distinct items, the items itself when no duplicate
+     * @param <T> Generic bean class
+     */
+    <T> List<T> distinctByKeys(List<T> items) {
+        Set<List<Object>> seen = new HashSet<>(items.size() * 4 / 3 + 1);
+        List<T> result = new ArrayList<>(items.size());
+        for (int i = items.size() - 1; i >= 0; i--) {
+            T item = items.get(i);
+            List<Object> key = keyOf(item);
+            if (key == null || seen.add(key)) {
+                result.add(item);
+            }
+        }
+        if (result.size() == items.size()) {
+            return items;
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    private List<Object> keyOf(Object item) {
+        List<Object> values = new ArrayList<>(keyColumns.size());
+        for (BeanColumns.Column column : keyColumns) {
+            Object value = column.getValue(item);
+            if (value == null) {
+                return null;
+            }
+            values.add(value);
+        }
+        return values;
+    }
+
+    int rowsPerStatement() {
+        return dialect.rowsPerStatement(columns.size());
+    }
+
+    String insert(int rows) {
+        StringBuilder sql = new StringBuilder(64 + rows * columns.size() * 3);
+        sql.append("INSERT INTO ").append(table).append(" (");
+        appendColumns(sql, "");
+        sql.append(") VALUES ");
+        appendValues(sql, rows);
+        return sql.toString();
+    }
+
+    String upsert(int rows) {
+        if (keys.isEmpty()) {
+            throw new IllegalArgumentException("Key columns are required for bulk upsert");
+        }
+
+        switch (dialect) {
+            case MYSQL:
+                return mySqlUpsert(rows);
+            case POSTGRESQL:
+                return postgreSqlUpsert(rows);
+            case MSSQL:
+                return msSqlMerge(rows);
+            case ORACLE:
+                return oracleMerge();
+            default:
+                throw new UnsupportedOperationException("Bulk upsert is not supported for " + dialect);
+        }
+    }
+
+    private String mySqlUpsert(int rows) {
+        StringBuilder sql = new StringBuilder(insert(rows));
+        sql.append(" ON DUPLICATE KEY UPDATE ");
+        List<BeanColumns.Column> updates = updateColumns();
+        if (updates.isEmpty()) {
+            return sql.append(keys.get(0)).append(" = ").append(keys.get(0)).toString();
+        }
+
+        for (int i = 0; i < updates.size(); i++) {
+            String col = updates.get(i).getColumn();
+            sql.append(i == 0 ? "" : ", ").append(col).append(" = VALUES(").append(col).append(")");
+        }
+        return sql.toString();
+    }
+
+    private String postgreSqlUpsert(int rows) {
+        StringBuilder sql = new StringBuilder(insert(rows));
+        sql.append(" ON CONFLICT (").append(String.join(", ", keys)).append(")");
+        List<BeanColumns.Column> updates = updateColumns();
+        if (updates.isEmpty()) {
+            sql.append(" DO NOTHING");
+            return sql.toString();
+        }
+
+        sql.append(" DO UPDATE SET ");
+        for (int i = 0; i < updates.size(); i++) {
+            String col = updates.get(i).getColumn();
+            sql.append(i == 0 ? "" : ", ").append(col).append(" = EXCLUDED.").append(col);
+        }
+        return sql.toString();
+    }
+
+    private String msSqlMerge(int rows) {
+        StringBuilder sql = new StringBuilder(128 + rows * columns.size() * 3);
+        sql.append("MERGE INTO ").append(table).append(" AS T USING (VALUES ");
+        appendValues(sql, rows);
+        sql.append(") AS S (");
+        appendColumns(sql, "");
+        sql.append(")");
+        appendMergeActions(sql);
+        sql.append(";");
+        return sql.toString();
+    }
+
+    private String oracleMerge() {
+        StringBuilder sql = new StringBuilder(128 + columns.size() * 24);
+        sql.append("MERGE INTO ").append(table).append(" T USING (SELECT ");
+        for (int i = 0; i < columns.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("? AS ").append(columns.get(i).getColumn());
+        }
+        sql.append(" FROM DUAL) S");
+        appendMergeActions(sql);
+        return sql.toString();
+    }
+
+    private void appendMergeActions(StringBuilder sql) {
+        sql.append(" ON (");
+        for (int i = 0; i < keys.size(); i++) {
+            sql.append(i == 0 ? "" : " AND ").append("T.").append(keys.get(i))
+                    .append(" = S.").append(keys.get(i));
+        }
+        sql.append(")");
+
+        List<BeanColumns.Column> updates = updateColumns();
+        if (!updates.isEmpty()) {
+            sql.append(" WHEN MATCHED THEN UPDATE SET ");
+            for (int i = 0; i < updates.size(); i++) {
+                String col = updates.get(i).getColumn();
+                sql.append(i == 0 ? "" : ", ").append("T.").append(col).append(" = S.").append(col);
+            }
+        }
+        sql.append(" WHEN NOT MATCHED THEN INSERT (");
+        appendColumns(sql, "");
+        sql.append(") VALUES (");
+        appendColumns(sql, "S.");
+        sql.append(")");
+    }
+
+    private List<BeanColumns.Column> updateColumns() {
+        Set<String> keySet = new HashSet<>(keys);
+        List<BeanColumns.Column> result = new ArrayList<>(columns.size());
+        for (BeanColumns.Column col : columns) {
+            if (!keySet.contains(col.getColumn())) {
+                result.add(col);
+            }
+        }
+        return result;
+    }
+
+    private void appendColumns(StringBuilder sql, String prefix) {
+        for (int i = 0; i < columns.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append(prefix).append(columns.get(i).getColumn());
+        }
+    }
+
+    private void appendValues(StringBuilder sql, int rows) {
+        for (int r = 0; r < rows; r++) {
+            sql.append(r == 0 ? "(" : ", (");
+            for (int i = 0; i < columns.size(); i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            sql.append(")");
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Limit the concurrent executions of the DAO (or the operation) with the bounded wait queue,
+ * the execution is rejected fast (BulkheadFullException) when the wait queue is full or the wait times out.
+ * The slow DAO cannot take all connections of the shared pool from the latency-critical DAOs.
+ * The nested executions of the same thread hold one permit.
+ * <pre>
+ * reportDao.setBulkhead(new Bulkhead("report", 4, 8));
+ * exportBulkhead.execute(() -> dao.exportCsv(sql, params, out));
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class Bulkhead {
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxWaiting;
+    private final Semaphore permits;
+    private long maxWaitMillis = 1000;
+
+    private final ThreadLocal<int[]> holds = ThreadLocal.withInitial(() -> new int[1]);
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAccumulator peakConcurrent = new LongAccumulator(Math::max, 0);
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+
+    /**
+     * Create the bulkhead
+     * @param name The bulkhead name (e.g. DAO class or operation)
+     * @param maxConcurrent Maximum concurrent executions
+     * @param maxWaiting Maximum waiting executions, 0 for reject immediately when full
+     */
+    public Bulkhead(String name, int maxConcurrent, int maxWaiting) {
+        if (maxConcurrent <= 0 || maxWaiting < 0) {
+            throw new IllegalArgumentException("Invalid bulkhead size " + maxConcurrent + "/" + maxWaiting);
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaiting = maxWaiting;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Execute the operation within the bulkhead
+     * @param operation The operation
+     * @return The result of operation
+     * @param <T> Generic result class
+     * @throws BulkheadFullException When the bulkhead is full
+     */
+    public <T> T execute(Supplier<T> operation) {
+        acquire();
+        try {
+            return operation.get();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Acquire the permit of current thread, must be released by release() in finally block
+     * @throws BulkheadFullException When the bulkhead is full
+     */
+    public void acquire() {
+        int[] hold = holds.get();
+        if (hold[0] > 0) {
+            hold[0]++;
+            return;
+        }
+
+        if (!tryAcquire(0)) {
+            waitPermit();
+        }
+        hold[0] = 1;
+        accepted.increment();
+        peakConcurrent.accumulate(maxConcurrent - permits.availablePermits());
+    }
+
+    /**
+     * Release the permit of current thread
+     */
+    public void release() {
+        int[] hold = holds.get();
+        if (hold[0] <= 0) {
+            throw new IllegalStateException("Bulkhead '" + name + "' is not acquired by current thread");
+        }
+        if (--hold[0] == 0) {
+            holds.remove();
+            permits.release();
+        }
+    }
+
+    private void waitPermit() {
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            rejected.increment();
+            throw new BulkheadFullException("Bulkhead '" + name + "' is full (" + maxConcurrent
+                    + " executing, " + maxWaiting + " waiting)");
+        }
+
+        queued.increment();
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = tryAcquire(maxWaitMillis);
+        } finally {
+            waiting.decrementAndGet();
+            waitNanos.add(System.nanoTime() - start);
+        }
+        if (!acquired) {
+            timeouts.increment();
+            throw new BulkheadFullException("Bulkhead '" + name + "' wait timeout " + maxWaitMillis + " ms");
+        }
+    }
+
+    /**
+     * Acquire the permit in the order of the waiting threads (the fair semaphore),
+     * tryAcquire() without timeout barges ahead of the waiting threads
+     */
+    private boolean tryAcquire(long timeoutMillis) {
+        try {
+            return permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            rejected.increment();
+            throw new BulkheadFullException("Bulkhead '" + name + "' wait is interrupted", ex);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getMaxWaiting() {
+        return maxWaiting;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    /**
+     * Set maximum wait time of the queued execution (default 1 second)
+     * @param maxWaitMillis The wait time in milliseconds
+     */
+    public void setMaxWaitMillis(long maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    public int getActiveCount() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int getWaitingCount() {
+        return waiting.get();
+    }
+
+    public long getPeakConcurrent() {
+        return peakConcurrent.get();
+    }
+
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    /**
+     * Get total executions that waited for the permit
+     * @return The queued executions
+     */
+    public long getQueued() {
+        return queued.sum();
+    }
+
+    /**
+     * Get total executions that rejected by the full wait queue
+     * @return The rejected executions
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Get total executions that rejected by the wait timeout
+     * @return The timed out executions
+     */
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    /**
+     * Get the average wait time of the queued executions
+     * @return The average wait time in milliseconds
+     */
+    public double getAverageWaitMillis() {
+        long total = queued.sum();
+        return (total == 0) ? 0d : waitNanos.sum() / 1_000_000d / total;
+    }
+
+    @Override
+    public String toString() {
+        return "Bulkhead [" + name + ", active=" + getActiveCount() + "/" + maxConcurrent
+                + ", waiting=" + getWaitingCount() + "/" + maxWaiting + "]";
+    }
+
+    /**
+     * The execution is rejected by the full bulkhead
+     */
+    public static class BulkheadFullException extends DataAccessResourceFailureException {
+        private static final long serialVersionUID = 1L;
+
+        public BulkheadFullException(String msg) {
+            super(msg);
+        }
+
+        public BulkheadFullException(String msg, Throwable cause) {
+            super(msg, cause);
+        }
+    }
+}
@@ -0,0 +1,350 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc;
+
+import io.github.jdevlibs.spring.Transformers;
+import io.github.jdevlibs.spring.jdbc.criteria.Criteria;
+import io.github.jdevlibs.spring.jdbc.criteria.IndexParameter;
+import io.github.jdevlibs.spring.jdbc.criteria.NameParameter;
+import io.github.jdevlibs.spring.jdbc.criteria.Parameter;
+import io.github.jdevlibs.spring.jdbc.criteria.QueryHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Poll the new or changed rows of a query by the watermark column (updated timestamp or monotonic id).
+ * Only the rows after the last watermark are fetched, in bounded batches ordered by the watermark,
+ * and each row is mapped and consumed while it is read (the batch is not collected to a list).
+ * The rows of the same watermark value are ordered and resumed by the tie-breaker column (unique id).
+ * <p>
+ * The watermark must be visible in commit order, otherwise the rows that commit late are skipped permanently:
+ * the timestamp or id assigned at insert/update by a long transaction can be lower than the watermark
+ * already polled from the transactions that committed before it. Prefer the column assigned in commit order
+ * (e.g. a sequence set by the commit-time trigger or the change log table), or set the safety lag
+ * (longer than the longest transaction) for the timestamp watermark, only the rows older than the lag are polled.
+ * <pre>
+ * ChangePoller&lt;Order&gt; poller = new ChangePoller&lt;&gt;(dao, "SELECT * FROM ORDERS", Order.class,
+ *         "UPDATED_AT", "ORDER_ID");
+ * poller.setSafetyLagMillis(60000);
+ * poller.start(5000, order -&gt; publish(order));
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class ChangePoller<T> {
+    private static final Logger logger = LoggerFactory.getLogger(ChangePoller.class);
+    private static final String P_WATERMARK = "P_WATERMARK";
+    private static final String P_WATERMARK_ID = "P_WATERMARK_ID";
+    private static final String P_WATERMARK_UNTIL = "P_WATERMARK_UNTIL";
+
+    private final JdbcDao dao;
+    private final String sql;
+    private final Parameter params;
+    private final RowMapper<T> mapper;
+    private final String watermarkColumn;
+    private final String tieBreakerColumn;
+
+    private int batchSize = 500;
+    private int maxBatchesPerPoll = 20;
+    private long maxIntervalMillis = TimeUnit.MINUTES.toMillis(5);
+    private long safetyLagMillis;
+
+    private volatile Object watermark;
+    private volatile Object watermarkId;
+
+    private ScheduledExecutorService executor;
+    private boolean defaultExecutor;
+    private volatile ScheduledFuture<?> future;
+    private volatile boolean running;
+    private long generation;
+    private long intervalMillis;
+    private long delayMillis;
+    private long polledRows;
+    private int failures;
+
+    /**
+     * Create the poller of the query
+     * @param dao The DAO
+     * @param sql The sql statement without the watermark condition
+     * @param clazz The result class type
+     * @param watermarkColumn The watermark column (increase on insert or update)
+     * @param tieBreakerColumn The unique column for ordering the rows of same watermark, null when the watermark is unique
+     */
+    public ChangePoller(JdbcDao dao, String sql, Class<T> clazz, String watermarkColumn, String tieBreakerColumn) {
+        this(dao, sql, new IndexParameter(), Transformers.toBean(clazz), watermarkColumn, tieBreakerColumn);
+    }
+
+    /**
+     * Create the poller of the query
+     * @param dao The DAO
+     * @param sql The sql statement without the watermark condition
+     * @param params The sql statement parameter
+     * @see IndexParameter
+     * @see NameParameter
+     * @param mapper The row mapper
+     * @param watermarkColumn The watermark column (increase on insert or update)
+     * @param tieBreakerColumn The unique column for ordering the rows of same watermark, null when the watermark is unique
+     */
+    public ChangePoller(JdbcDao dao, String sql, Parameter params, RowMapper<T> mapper, String watermarkColumn,
+                        String tieBreakerColumn) {
+        this.dao = dao;
+        this.sql = sql;
+        this.params = (params == null) ? new IndexParameter() : params;
+        this.mapper = mapper;
+        this.watermarkColumn = watermarkColumn;
+        this.tieBreakerColumn = tieBreakerColumn;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Set maximum batches of one poll, the remaining rows are fetched by the next poll immediately
+     * @param maxBatchesPerPoll The maximum batches
+     */
+    public void setMaxBatchesPerPoll(int maxBatchesPerPoll) {
+        this.maxBatchesPerPoll = maxBatchesPerPoll;
+    }
+
+    /**
+     * Set maximum delay of the backoff when no change or the poll is failed
+     * @param maxIntervalMillis The maximum delay in milliseconds
+     */
+    public void setMaxIntervalMillis(long maxIntervalMillis) {
+        this.maxIntervalMillis = maxIntervalMillis;
+    }
+
+    /**
+     * Set the safety lag of the timestamp watermark, only the rows with the watermark older than
+     * (now - lag) are polled, so the rows of the transactions shorter than the lag are not skipped.
+     * The lag is computed by the application clock (java.sql.Timestamp)
+     * @param safetyLagMillis The lag in milliseconds, 0 for disable (the watermark in commit order)
+     */
+    public void setSafetyLagMillis(long safetyLagMillis) {
+        this.safetyLagMillis = safetyLagMillis;
+    }
+
+    /**
+     * Set the scheduled executor, default is a single daemon thread
+     * @param executor The scheduled executor
+     */
+    public void setExecutor(ScheduledExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public Object getWatermark() {
+        return watermark;
+    }
+
+    public Object getWatermarkId() {
+        return watermarkId;
+    }
+
+    /**
+     * Set the watermark to resume polling (e.g. the watermark was persisted by the previous run)
+     * @param watermark The last watermark value, null for all rows
+     * @param watermarkId The last tie-breaker value of the watermark
+     */
+    public synchronized void setWatermark(Object watermark, Object watermarkId) {
+        this.watermark = watermark;
+        this.watermarkId = watermarkId;
+    }
+
+    public long getPolledRows() {
+        return polledRows;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Fetch the rows after the watermark, the watermark advances after each row is consumed
+     * @param consumer The row consumer
+     * @return Total rows of this poll
+     */
+    public synchronized int poll(Consumer<T> consumer) {
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerPoll; batch++) {
+            int rows = pollBatch(consumer);
+            total += rows;
+            if (rows < batchSize) {
+                break;
+            }
+        }
+        polledRows += total;
+        return total;
+    }
+
+    /**
+     * Start polling on the scheduled executor, the delay is doubled (up to the maximum interval)
+     * when no change or the poll is failed, and back to the interval when changes are found
+     * @param intervalMillis The polling interval in milliseconds
+     * @param consumer The row consumer
+     */
+    public synchronized void start(long intervalMillis, Consumer<T> consumer) {
+        if (running) {
+            return;
+        }
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "change-poller");
+                thread.setDaemon(true);
+                return thread;
+            });
+            defaultExecutor = true;
+        }
+
+        this.intervalMillis = intervalMillis;
+        this.delayMillis = intervalMillis;
+        this.running = true;
+        long current = ++generation;
+        future = executor.schedule(() -> run(consumer, current), 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop polling, the running poll is completed
+     */
+    public synchronized void stop() {
+        running = false;
+        if (future != null) {
+            future.cancel(false);
+            future = null;
+        }
+        if (defaultExecutor) {
+            executor.shutdown();
+            executor = null;
+            defaultExecutor = false;
+        }
+    }
+
+    private void run(Consumer<T> consumer, long runGeneration) {
+        long delay;
+        try {
+            int rows = poll(consumer);
+            failures = 0;
+            if (rows >= batchSize * maxBatchesPerPoll) {
+                delay = 0;
+            } else if (rows > 0) {
+                delay = intervalMillis;
+            } else {
+                delay = Math.min(maxIntervalMillis, Math.max(delayMillis * 2, intervalMillis));
+            }
+        } catch (RuntimeException ex) {
+            failures++;
+            delay = Math.min(maxIntervalMillis, intervalMillis << Math.min(failures, 20));
+            logger.warn("Change polling failed ({} times), retry in {} ms : {}", failures, delay, ex.getMessage());
+        }
+
+        synchronized (this) {
+            // the loop of the previous start (stop then start while polling) is not rescheduled
+            if (running && runGeneration == generation) {
+                delayMillis = Math.max(delay, intervalMillis);
+                future = executor.schedule(() -> run(consumer, runGeneration), delay, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private int pollBatch(Consumer<T> consumer) {
+        Parameter batchParams = copyOf(params);
+        StringBuilder batchSql = new StringBuilder();
+        batchSql.append("SELECT * FROM (").append(sql).append(" ) TB");
+        if (watermark != null) {
+            setWatermarkCondition(batchSql, batchParams);
+        }
+        if (safetyLagMillis > 0) {
+            batchSql.append((watermark != null) ? " AND " : " WHERE ").append(watermarkColumn).append(" <= ")
+                    .append((batchParams instanceof NameParameter) ? ":" + P_WATERMARK_UNTIL : "?");
+            addParam(batchParams, P_WATERMARK_UNTIL, new Timestamp(System.currentTimeMillis() - safetyLagMillis));
+        }
+        batchSql.append(" ORDER BY ").append(watermarkColumn).append(" ASC");
+        if (tieBreakerColumn != null) {
+            batchSql.append(", ").append(tieBreakerColumn).append(" ASC");
+        }
+
+        Criteria criteria = new Criteria();
+        criteria.setPage(1);
+        criteria.setSize(batchSize);
+        dao.setPagingOption(batchSql, batchParams, criteria);
+
+        Integer rows = dao.query(batchSql.toString(), batchParams, streamExtractor(consumer),
+                QueryHints.fetchSize(batchSize));
+        return (rows == null) ? 0 : rows;
+    }
+
+    private void setWatermarkCondition(StringBuilder sql, Parameter params) {
+        boolean named = params instanceof NameParameter;
+        String value = named ? ":" + P_WATERMARK : "?";
+        sql.append(" WHERE ");
+        if (tieBreakerColumn == null) {
+            sql.append(watermarkColumn).append(" > ").append(value);
+            addParam(params, P_WATERMARK, watermark);
+            return;
+        }
+
+        String id = named ? ":" + P_WATERMARK_ID : "?";
+        sql.append("(").append(watermarkColumn).append(" > ").append(value)
+                .append(" OR (").append(watermarkColumn).append(" = ").append(value)
+                .append(" AND ").append(tieBreakerColumn).append(" > ").append(id).append("))");
+        addParam(params, P_WATERMARK, watermark);
+        if (!named) {
+            addParam(params, P_WATERMARK, watermark);
+        }
+        addParam(params, P_WATERMARK_ID, watermarkId);
+    }
+
+    private ResultSetExtractor<Integer> streamExtractor(Consumer<T> consumer) {
+        return rs -> {
+            int rowNum = 0;
+            while (rs.next()) {
+                T item = mapper.mapRow(rs, rowNum);
+                Object value = rs.getObject(watermarkColumn);
+                Object id = (tieBreakerColumn == null) ? null : rs.getObject(tieBreakerColumn);
+                consumer.accept(item);
+                watermark = value;
+                watermarkId = id;
+                rowNum++;
+            }
+            return rowNum;
+        };
+    }
+
+    private static void addParam(Parameter params, String name, Object value) {
+        if (params instanceof NameParameter) {
+            ((NameParameter) params).add(name, value);
+        } else {
+            ((IndexParameter) params).add(value);
+        }
+    }
+
+    private static Parameter copyOf(Parameter params) {
+        if (params instanceof NameParameter) {
+            return ((NameParameter) params).copy();
+        }
+        return ((IndexParameter) params).copy();
+    }
+}
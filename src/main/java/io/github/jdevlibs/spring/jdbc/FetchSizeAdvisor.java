@@ -0,0 +1,232 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Learn the fetch size per SQL statement from the observed row count and row width.
+ * The fetch size is bounded by the memory budget of one fetch (rows * average row width).
+ * The statements are keyed by SQL fingerprint, so the statements that differ only by literals share the statistics.
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class FetchSizeAdvisor {
+    private static final int MAX_COLUMN_WIDTH = 4000;
+    private static final int COLUMN_OVERHEAD = 16;
+    private static final double SMOOTHING = 0.3;
+
+    private final Map<String, Statistics> statistics = new ConcurrentHashMap<>();
+    private int minFetchSize = 10;
+    private int maxFetchSize = 5000;
+    private long memoryBudget = 4L * 1024 * 1024;
+    private int maxStatements = 1000;
+
+    /**
+     * Get the fetch size for the SQL statement
+     * @param sql The SQL statement
+     * @return The fetch size, 0 when not known (use driver default)
+     */
+    public int getFetchSize(String sql) {
+        Statistics stats = statistics.get(sql);
+        return (stats == null) ? 0 : stats.fetchSize;
+    }
+
+    /**
+     * Record the executed statement
+     * @param sql The SQL statement
+     * @param metaData The result metadata for estimate row width
+     * @param rows Total rows that read
+     * @throws SQLException When cannot read metadata
+     */
+    public void record(String sql, ResultSetMetaData metaData, long rows) throws SQLException {
+        Statistics stats = statistics.get(sql);
+        if (stats == null) {
+            if (statistics.size() >= maxStatements) {
+                return;
+            }
+            stats = statistics.computeIfAbsent(sql, key -> new Statistics());
+        }
+        stats.record(rows, estimateRowWidth(metaData), this);
+    }
+
+    /**
+     * Get the snapshot of statistics by SQL statement
+     * @return The statistics
+     */
+    public Map<String, Statistics> getStatistics() {
+        Map<String, Statistics> result = new HashMap<>(statistics.size());
+        for (Map.Entry<String, Statistics> entry : statistics.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().copy());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    public void reset() {
+        statistics.clear();
+    }
+
+    public int getMinFetchSize() {
+        return minFetchSize;
+    }
+
+    public void setMinFetchSize(int minFetchSize) {
+        this.minFetchSize = minFetchSize;
+    }
+
+    public int getMaxFetchSize() {
+        return maxFetchSize;
+    }
+
+    public void setMaxFetchSize(int maxFetchSize) {
+        this.maxFetchSize = maxFetchSize;
+    }
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Set maximum bytes of one fetch (fetch size * average row width)
+     * @param memoryBudget The memory budget in bytes
+     */
+    public void setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    public int getMaxStatements() {
+        return maxStatements;
+    }
+
+    public void setMaxStatements(int maxStatements) {
+        this.maxStatements = maxStatements;
+    }
+
+    int calculateFetchSize(double averageRows, double rowWidth) {
+        long byMemory = (long) (memoryBudget / Math.max(rowWidth, 1d));
+        long byRows = (long) Math.ceil(averageRows * 1.1d);
+        long size = Math.min(byRows, Math.min(byMemory, maxFetchSize));
+        return (int) Math.max(size, minFetchSize);
+    }
+
+    static int estimateRowWidth(ResultSetMetaData metaData) throws SQLException {
+        int width = 0;
+        for (int i = 1, total = metaData.getColumnCount(); i <= total; i++) {
+            width += COLUMN_OVERHEAD + estimateColumnWidth(metaData, i);
+        }
+        return width;
+    }
+
+    private static int estimateColumnWidth(ResultSetMetaData metaData, int column) throws SQLException {
+        switch (metaData.getColumnType(column)) {
+            case Types.BIT:
+            case Types.BOOLEAN:
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+                return 4;
+            case Types.BIGINT:
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return 8;
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                return 22;
+            case Types.DATE:
+            case Types.TIME:
+            case Types.TIMESTAMP:
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                return 12;
+            case Types.BLOB:
+            case Types.CLOB:
+            case Types.NCLOB:
+            case Types.LONGVARBINARY:
+            case Types.LONGVARCHAR:
+                return MAX_COLUMN_WIDTH;
+            default:
+                int size = metaData.getColumnDisplaySize(column);
+                return (size <= 0) ? 32 : Math.min(size, MAX_COLUMN_WIDTH);
+        }
+    }
+
+    /**
+     * The statistics of one SQL statement
+     */
+    public static final class Statistics {
+        private long executions;
+        private long maxRows;
+        private double averageRows;
+        private double averageRowWidth;
+        private volatile int fetchSize;
+
+        private synchronized void record(long rows, int rowWidth, FetchSizeAdvisor advisor) {
+            if (executions == 0) {
+                averageRows = rows;
+                averageRowWidth = rowWidth;
+            } else {
+                averageRows += SMOOTHING * (rows - averageRows);
+                averageRowWidth += SMOOTHING * (rowWidth - averageRowWidth);
+            }
+            executions++;
+            maxRows = Math.max(maxRows, rows);
+            fetchSize = advisor.calculateFetchSize(averageRows, averageRowWidth);
+        }
+
+        private synchronized Statistics copy() {
+            Statistics stats = new Statistics();
+            stats.executions = executions;
+            stats.maxRows = maxRows;
+            stats.averageRows = averageRows;
+            stats.averageRowWidth = averageRowWidth;
+            stats.fetchSize = fetchSize;
+            return stats;
+        }
+
+        public long getExecutions() {
+            return executions;
+        }
+
+        public long getMaxRows() {
+            return maxRows;
+        }
+
+        public double getAverageRows() {
+            return averageRows;
+        }
+
+        public double getAverageRowWidth() {
+            return averageRowWidth;
+        }
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        @Override
+        public String toString() {
+            return "[executions=" + executions + ", averageRows=" + averageRows
+                    + ", averageRowWidth=" + averageRowWidth + ", fetchSize=" + fetchSize + "]";
+        }
+    }
+}
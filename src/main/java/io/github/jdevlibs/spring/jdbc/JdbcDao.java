@@ -16,24 +16,64 @@
  */
 package io.github.jdevlibs.spring.jdbc;
 
+import io.github.jdevlibs.spring.BeanColumns;
+import io.github.jdevlibs.spring.BeanPropertyIndex;
+import io.github.jdevlibs.spring.BoundedCache;
 import io.github.jdevlibs.spring.Transformers;
 import io.github.jdevlibs.spring.jdbc.criteria.*;
+import io.github.jdevlibs.spring.jdbc.enums.Dialects;
+import io.github.jdevlibs.spring.jdbc.result.ColumnarResult;
+import io.github.jdevlibs.spring.jdbc.result.ColumnarResultExtractor;
+import io.github.jdevlibs.spring.jdbc.result.CsvExportExtractor;
+import io.github.jdevlibs.spring.jdbc.result.ExportExtractor;
+import io.github.jdevlibs.spring.jdbc.result.JsonLinesExportExtractor;
+import io.github.jdevlibs.spring.jdbc.result.RowMapListExtractor;
+import io.github.jdevlibs.spring.jdbc.result.SpillingList;
+import io.github.jdevlibs.spring.jdbc.result.SpillingListExtractor;
 import io.github.jdevlibs.utils.JdbcUtils;
 import io.github.jdevlibs.utils.Validators;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.support.DataAccessUtils;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.RowMapperResultSetExtractor;
+import org.springframework.jdbc.core.SqlParameter;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.SingleColumnRowMapper;
+import org.springframework.jdbc.core.StatementCreatorUtils;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
+import org.springframework.jdbc.core.namedparam.ParsedSql;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
 import java.sql.*;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 
 /**
  * @author supot.jdev
@@ -41,10 +81,24 @@ import java.util.Map;
  */
 public abstract class JdbcDao implements InitializingBean {
     private static final String PL_SQL_VOID = "'{' call {0} '}'";
+    private static final int BULK_BATCH_ROWS = 1000;
+    private static final int EXPORT_FETCH_SIZE = 1000;
+    private static final int PROJECTION_CACHE_SIZE = 256;
+    private static final Pattern PROJECTION_COLUMN = Pattern.compile("[A-Za-z_][A-Za-z0-9_$#]*");
+    private static final Pattern SORT_COLUMN = Pattern.compile("[A-Za-z_][A-Za-z0-9_$#]*(\\.[A-Za-z_][A-Za-z0-9_$#]*)?");
     protected Logger logger = LoggerFactory.getLogger(getClass());
 
     private JdbcTemplate jdbcTemplate;
     private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private volatile Dialects dialect;
+    private FetchSizeAdvisor fetchSizeAdvisor;
+    private ReplicaRouter replicaRouter;
+    private SqlStatistics sqlStatistics;
+    private RetryPolicy retryPolicy;
+    private PagePrefetcher pagePrefetcher;
+    private Bulkhead bulkhead;
+    private boolean projectionPushdown;
+    private final BoundedCache<String, String> projectionCache = new BoundedCache<>(PROJECTION_CACHE_SIZE);
 
     /* ++++++++++++++++++++++++++ Initial and Validate +++++++++++++++++++++++ */
     @Override
@@ -58,6 +112,7 @@ public abstract class JdbcDao implements InitializingBean {
 
     public final void setJdbcTemplate(JdbcTemplate jdbcTemplate) {
         this.jdbcTemplate = jdbcTemplate;
+        this.dialect = null;
         if (jdbcTemplate != null) {
             jdbcTemplate.setResultsMapCaseInsensitive(true);
             this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
@@ -72,6 +127,98 @@ public abstract class JdbcDao implements InitializingBean {
         return jdbcTemplate;
     }
 
+    public FetchSizeAdvisor getFetchSizeAdvisor() {
+        return fetchSizeAdvisor;
+    }
+
+    /**
+     * Enable adaptive fetch size, the fetch size of each query is learned from the previous executions
+     * (the fetch size of QueryHints takes precedence).
+     * @param fetchSizeAdvisor The fetch size advisor, null for disable
+     */
+    public void setFetchSizeAdvisor(FetchSizeAdvisor fetchSizeAdvisor) {
+        this.fetchSizeAdvisor = fetchSizeAdvisor;
+    }
+
+    public ReplicaRouter getReplicaRouter() {
+        return replicaRouter;
+    }
+
+    /**
+     * Enable read/write splitting, the queries go to the replicas and the writes go to primary (JdbcTemplate).
+     * The queries within transaction or the stickiness window after write go to primary.
+     * @param replicaRouter The replica router, null for disable
+     */
+    public void setReplicaRouter(ReplicaRouter replicaRouter) {
+        this.replicaRouter = replicaRouter;
+    }
+
+    public SqlStatistics getSqlStatistics() {
+        return sqlStatistics;
+    }
+
+    /**
+     * Enable the statistics of executed statements by SQL fingerprint (the statistics can be shared by DAOs)
+     * @param sqlStatistics The statistics registry, null for disable
+     */
+    public void setSqlStatistics(SqlStatistics sqlStatistics) {
+        this.sqlStatistics = sqlStatistics;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Enable retry of the transient errors, the queries to bean, object, map and columnar results are retried
+     * (not the queries of RowMapper or ResultSetExtractor of caller, nor the stream parameters)
+     * and the writes are retried only by executeIdempotent or retryable (never within transaction).
+     * @param retryPolicy The retry policy, null for disable
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    public PagePrefetcher getPagePrefetcher() {
+        return pagePrefetcher;
+    }
+
+    /**
+     * Enable the next page prefetch of queryWithPaging, the prefetched pages are cleared on write
+     * @param pagePrefetcher The page prefetcher, null for disable
+     */
+    public void setPagePrefetcher(PagePrefetcher pagePrefetcher) {
+        this.pagePrefetcher = pagePrefetcher;
+    }
+
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    /**
+     * Limit the concurrent statements of this DAO, the statements are rejected (BulkheadFullException)
+     * when the bulkhead is full (the bulkhead can be shared by DAOs)
+     * @param bulkhead The bulkhead, null for unlimited
+     */
+    public void setBulkhead(Bulkhead bulkhead) {
+        this.bulkhead = bulkhead;
+    }
+
+    public boolean isProjectionPushdown() {
+        return projectionPushdown;
+    }
+
+    /**
+     * Select only the columns that mapped to the result class in the paging query (SELECT TB.A, TB.B FROM (sql) TB)
+     * instead of all columns, the columns are discovered once per (sql, class) by the empty query (WHERE 1 = 0).
+     * The column labels are not quoted, the query selects all columns when a label is not in the case
+     * of the unquoted identifier of the database (e.g. the quoted mixed-case alias)
+     * @param projectionPushdown true for enable
+     */
+    public void setProjectionPushdown(boolean projectionPushdown) {
+        this.projectionPushdown = projectionPushdown;
+    }
+
     private void validateJdbcTemplate() {
         if (this.jdbcTemplate == null) {
             throw new IllegalArgumentException("JdbcTemplate is required");
@@ -101,13 +248,40 @@ public abstract class JdbcDao implements InitializingBean {
      * @param <T> Generic result class
      */
     public <T> List<T> queryToList(String sql, Parameter params, Class<T> clazz) {
+        return queryToList(sql, params, clazz, null);
+    }
+
+    /**
+     * Query and auto-convert to the collection of the target class.
+     * @param sql The sql statement
+     * @param params The sql statement parameter
+     * @see IndexParameter
+     * @see NameParameter
+     * @param clazz The result target class
+     * @param hints The statement hints for this query (fetch size, max rows, timeout)
+     * @return Collection of result target class
+     * @param <T> Generic result class
+     */
+    public <T> List<T> queryToList(String sql, Parameter params, Class<T> clazz, QueryHints hints) {
         logStatement(sql, params, clazz);
+        return doRetryableQuery(sql, params, hints, new RowMapperResultSetExtractor<>(Transformers.toBean(clazz)));
+    }
 
-        if (params instanceof NameParameter) {
-            return getNamedParameterJdbcTemplate().query(sql, params.toSqlParameter(), Transformers.toBean(clazz));
-        } else {
-            return getJdbcTemplate().query(sql, Transformers.toBean(clazz), toArrays(params));
-        }
+    /**
+     * Query and auto-convert to the collection of the target class, keep only the first rows on heap.
+     * The rest rows are written to temporary file and converted on access,
+     * close the result list to delete the temporary file.
+     * @param sql The sql statement
+     * @param params The sql statement parameter
+     * @see IndexParameter
+     * @see NameParameter
+     * @param clazz The result target class
+     * @param maxHeapRows Maximum rows that keep on heap
+     * @return Collection of result target class
+     * @param <T> Generic result class
+     */
+    public <T> SpillingList<T> queryToSpillingList(String sql, Parameter params, Class<T> clazz, int maxHeapRows) {
+        return query(sql, params, new SpillingListExtractor<>(clazz, maxHeapRows));
     }
 
     /**
@@ -130,13 +304,21 @@ public abstract class JdbcDao implements InitializingBean {
      * @param <T> Generic result class
      */
     public <T> List<T> queryToList(String sql, Parameter params, RowMapper<T> mapper) {
-        logStatement(sql, params);
+        return queryToList(sql, params, mapper, null);
+    }
 
-        if (params instanceof NameParameter) {
-            return getNamedParameterJdbcTemplate().query(sql, params.toSqlParameter(), mapper);
-        } else {
-            return getJdbcTemplate().query(sql, mapper, toArrays(params));
-        }
+    /**
+     * Query to the collection with RowMapper
+     * @param sql The sql statement
+     * @param params The sql statement parameter
+     * @param mapper RowMapping implement
+     * @param hints The statement hints for this query (fetch size, max rows, timeout)
+     * @return result target class
+     * @param <T> Generic result class
+     */
+    public <T> List<T> queryToList(String sql, Parameter params, RowMapper<T> mapper, QueryHints hints) {
+        logStatement(sql, params);
+        return doQuery(sql, params, hints, new RowMapperResultSetExtractor<>(mapper));
     }
 
     /*++++++++++++++++++ SQL -> Java Bean ++++++++++++++++++ */
@@ -165,13 +347,8 @@ public abstract class JdbcDao implements InitializingBean {
     public <T> T queryToBean(String sql, Parameter params, Class<T> clazz) {
         try {
             logStatement(sql, params, clazz);
-
-            if (params instanceof NameParameter) {
-                return getNamedParameterJdbcTemplate().queryForObject(sql, params.toSqlParameter(),
-                        Transformers.toBean(clazz));
-            } else {
-                return getJdbcTemplate().queryForObject(sql, Transformers.toBean(clazz), toArrays(params));
-            }
+            return DataAccessUtils.nullableSingleResult(doRetryableQuery(sql, params, null,
+                    new RowMapperResultSetExtractor<>(Transformers.toBean(clazz), 1)));
         } catch (EmptyResultDataAccessException ex) {
             return null;
         }
@@ -202,12 +379,8 @@ public abstract class JdbcDao implements InitializingBean {
     public <T> T queryToObject(String sql, Parameter params, Class<T> type) {
         try {
             logStatement(sql, params, type);
-
-            if (params instanceof NameParameter) {
-                return getNamedParameterJdbcTemplate().queryForObject(sql, params.toSqlParameter(), type);
-            } else {
-                return getJdbcTemplate().queryForObject(sql, type, toArrays(params));
-            }
+            return DataAccessUtils.nullableSingleResult(doRetryableQuery(sql, params, null,
+                    new RowMapperResultSetExtractor<>(new SingleColumnRowMapper<>(type), 1)));
         } catch (EmptyResultDataAccessException ex) {
             return null;
         }
@@ -233,14 +406,9 @@ public abstract class JdbcDao implements InitializingBean {
      * @param <T> Generic result class
      */
     public <T> T queryForObject(String sql, Parameter params, RowMapper<T> mapper) {
-
         logStatement(sql, params);
-
-        if (params instanceof NameParameter) {
-            return getNamedParameterJdbcTemplate().queryForObject(sql, params.toSqlParameter(), mapper);
-        } else {
-            return getJdbcTemplate().queryForObject(sql, mapper, toArrays(params));
-        }
+        return DataAccessUtils.nullableSingleResult(doQuery(sql, params, null,
+                new RowMapperResultSetExtractor<>(mapper, 1)));
     }
 
     /*++++++++++++++++++ SQL -> Custom Extractor ++++++++++++++++++ */
@@ -266,14 +434,89 @@ public abstract class JdbcDao implements InitializingBean {
      * @param <T> Generic result class
      */
     public <T> T query(String sql, Parameter params, ResultSetExtractor<T> rse) {
+        return query(sql, params, rse, null);
+    }
 
+    /**
+     * Query and auto-convert to ResultSetExtractor operation
+     * @param sql The sql statement
+     * @param params The sql statement parameter
+     * @see IndexParameter
+     * @see NameParameter
+     * @param rse The ResultSetExtractor operation
+     * @param hints The statement hints for this query (fetch size, max rows, timeout)
+     * @return result target class by ResultSetExtractor
+     * @param <T> Generic result class
+     */
+    public <T> T query(String sql, Parameter params, ResultSetExtractor<T> rse, QueryHints hints) {
         logStatement(sql, params);
+        return doQuery(sql, params, hints, rse);
+    }
 
-        if (params instanceof NameParameter) {
-            return getNamedParameterJdbcTemplate().query(sql, params.toSqlParameter(), rse);
-        } else {
-            return getJdbcTemplate().query(sql, rse, toArrays(params));
-        }
+    /*++++++++++++++++++ SQL -> Columnar ++++++++++++++++++ */
+    /**
+     * Query to column oriented result (primitive arrays), for aggregation/analytics query
+     * @param sql The sql statement
+     * @return The columnar result
+     */
+    public ColumnarResult queryToColumnar(String sql) {
+        return queryToColumnar(sql, new IndexParameter(0));
+    }
+
+    /**
+     * Query to column oriented result (primitive arrays), for aggregation/analytics query
+     * @param sql The sql statement
+     * @param params The sql statement parameter
+     * @see IndexParameter
+     * @see NameParameter
+     * @return The columnar result
+     */
+    public ColumnarResult queryToColumnar(String sql, Parameter params) {
+        return queryToColumnar(sql, params, null);
+    }
+
+    /**
+     * Query to column oriented result (primitive arrays), for aggregation/analytics query
+     * @param sql The sql statement
+     * @param params The sql statement parameter
+     * @see IndexParameter
+     * @see NameParameter
+     * @param hints The statement hints for this query, the arrays grow by the fetch size
+     * @return The columnar result
+     */
+    public ColumnarResult queryToColumnar(String sql, Parameter params, QueryHints hints) {
+        logStatement(sql, params);
+        return doRetryableQuery(sql, params, hints, new ColumnarResultExtractor());
+    }
+
+    /*++++++++++++++++++ SQL -> List Map ++++++++++++++++++ */
+    /**
+     * Query to list of row maps (case-insensitive column name), the rows share one column header
+     * and keep the values only
+     * @param sql The sql statement
+     * @param params The sql statement parameter
+     * @see IndexParameter
+     * @see NameParameter
+     * @return The row maps (RowMap), empty list when no row
+     */
+    public List<Map<String, Object>> queryToMapList(String sql, Parameter params) {
+        return queryToMapList(sql, params, null);
+    }
+
+    /**
+     * Query to list of row maps (case-insensitive column name), the rows share one column header
+     * and keep the values only
+     * @param sql The sql statement
+     * @param params The sql statement parameter
+     * @see IndexParameter
+     * @see NameParameter
+     * @param hints The statement hints for this query
+     * @return The row maps (RowMap), empty list when no row
+     */
+    public List<Map<String, Object>> queryToMapList(String sql, Parameter params, QueryHints hints) {
+        logStatement(sql, params);
+        List<Map<String, Object>> results = doRetryableQuery(sql, params, hints, new RowMapListExtractor());
+        return (results == null) ? new ArrayList<>(0) : results;
     }
 
     /*++++++++++++++++++ Paging ++++++++++++++++++ */
@@ -301,6 +544,35 @@ public abstract class JdbcDao implements InitializingBean {
      * @param <T> Generic result class
      */
     public <T> Paging<T> queryWithPaging(String sql, Parameter params, Criteria criteria, Class<T> clazz) {
+        return queryWithPaging(sql, params, criteria, clazz, null);
+    }
+
+    /**
+     * Query and auto-convert to a Paging result, the sort columns of criteria must be in the allowed columns
+     * @param sql The sql statement
+     * @param params The sql statement parameter
+     * @see IndexParameter
+     * @see NameParameter
+     * @param criteria Sql criteria
+     * @param clazz The result class type
+     * @param sortColumns The allowed sort columns (whitelist), null for any valid column name
+     * @return result paging data
+     * @param <T> Generic result class
+     */
+    public <T> Paging<T> queryWithPaging(String sql, Parameter params, Criteria criteria, Class<T> clazz,
+                                         Collection<String> sortColumns) {
+        PagePrefetcher prefetcher = this.pagePrefetcher;
+        if (prefetcher != null) {
+            RoutingContext routing = captureRouting();
+            return prefetcher.query(sql, params, criteria, clazz, sortColumns, routing,
+                    (pageParams, pageCriteria) -> withRouting(routing,
+                            () -> loadPage(sql, pageParams, pageCriteria, clazz, sortColumns)));
+        }
+        return loadPage(sql, params, criteria, clazz, sortColumns);
+    }
+
+    private <T> Paging<T> loadPage(String sql, Parameter params, Criteria criteria, Class<T> clazz,
+                                   Collection<String> sortColumns) {
         Paging<T> paging = new Paging<>();
         if (!criteria.isSkipRowCount() || criteria.getTotalElement() == null) {
             Long count = countForPaging(sql, params);
@@ -310,7 +582,7 @@ public abstract class JdbcDao implements InitializingBean {
             paging.setTotalElements(criteria.getTotalElement());
         }
 
-        List<T> items = queryToPaging(sql, params, criteria, clazz);
+        List<T> items = queryToPaging(sql, params, criteria, clazz, sortColumns);
         paging.setItems(items);
         paging.setCriteria(criteria);
         paging.calculateTotalPage();
@@ -342,16 +614,31 @@ public abstract class JdbcDao implements InitializingBean {
      * @param <T> Generic result class
      */
     public <T> List<T> queryToPaging(String sql, Parameter params, Criteria criteria, Class<T> clazz) {
+        return queryToPaging(sql, params, criteria, clazz, null);
+    }
 
+    /**
+     * Query and auto-convert to paging collection result, the sort columns of criteria must be in the allowed columns
+     * @param sql The sql statement
+     * @param params The sql statement parameter
+     * @see IndexParameter
+     * @see NameParameter
+     * @param criteria Sql criteria
+     * @param clazz The result class type
+     * @param sortColumns The allowed sort columns (whitelist), null for any valid column name
+     * @return result paging collection data
+     * @param <T> Generic result class
+     */
+    public <T> List<T> queryToPaging(String sql, Parameter params, Criteria criteria, Class<T> clazz,
+                                     Collection<String> sortColumns) {
+        String orderBy = criteria.isEmptySort() ? "" : orderByClause(criteria.getSorts(), sortColumns);
+        String projection = projectionPushdown ? getProjection(sql, params, clazz) : "*";
         StringBuilder pageSql = new StringBuilder();
-        pageSql.append("SELECT * FROM (").append(sql);
-        pageSql.append(" ) TB");
-        if (!criteria.isEmptySort()) {
-            setOrderByOption(pageSql, criteria);
-        }
+        pageSql.append("SELECT ").append(projection).append(" FROM (").append(sql);
+        pageSql.append(" ) TB").append(orderBy);
         setPagingOption(pageSql, params, criteria);
 
-        return queryToList(pageSql.toString(), params, clazz);
+        return queryToList(pageSql.toString(), params, clazz, criteria.getHints());
     }
 
     /**
@@ -364,7 +651,14 @@ public abstract class JdbcDao implements InitializingBean {
      */
     public Long countForPaging(String sql, Parameter params) {
         String countSql = "SELECT COUNT(*) AS TOTAL FROM (" + sql + ") TB";
-        Number value = queryToNumber(countSql, params);
+        Number value;
+        try {
+            logStatement(countSql, params, Number.class);
+            value = DataAccessUtils.nullableSingleResult(doRetryableQuery(countSql, params, null,
+                    new RowMapperResultSetExtractor<>(new SingleColumnRowMapper<>(Number.class), 1), true));
+        } catch (EmptyResultDataAccessException ex) {
+            value = null;
+        }
         if (Validators.isNull(value)) {
             return 0L;
         }
@@ -409,20 +703,23 @@ public abstract class JdbcDao implements InitializingBean {
         sql.append("SELECT ROWNUM AS PAGE_ROW_NUM, T.* FROM (");
         sql.append(normalSql);
         sql.append(") T");
-        sql.append(") T");
         if (params instanceof NameParameter) {
             NameParameter name = (NameParameter) params;
-            sql.append(" WHERE T.PAGE_ROW_NUM <= :P_PAGE_ROW_NUM");
-            name.add("P_PAGE_ROW_NUM", paging.getOracleRowEnd());
+            sql.append(" WHERE ROWNUM <= :P_PAGE_ROW_END");
+            sql.append(") T WHERE T.PAGE_ROW_NUM >= :P_PAGE_ROW_START");
+            name.add("P_PAGE_ROW_END", paging.getOracleRowEnd());
+            name.add("P_PAGE_ROW_START", paging.getOracleRowStart());
         } else {
             IndexParameter inx = (IndexParameter) params;
-            sql.append(" WHERE T.P_PAGE_ROW_NUM <= ?");
+            sql.append(" WHERE ROWNUM <= ?");
+            sql.append(") T WHERE T.PAGE_ROW_NUM >= ?");
             inx.add(paging.getOracleRowEnd());
+            inx.add(paging.getOracleRowStart());
         }
     }
 
     /**
-     * Set order by a column or property
+     * Set order by a column or property, the sort columns and directions are validated
      * @param sql The sql statement
      * @param paging Sql paging criteria
      */
@@ -430,18 +727,126 @@ public abstract class JdbcDao implements InitializingBean {
         if (paging.isEmptySort()) {
             return;
         }
+        sql.append(orderByClause(paging.getSorts(), null));
+    }
+
+    /**
+     * Get the select list of the columns that mapped to the result class, cached by (sql, class) including
+     * the discovery failures
+     * @param sql The base sql statement
+     * @param params The sql statement parameter
+     * @param clazz The result class
+     * @return The select list, * when all columns are mapped or cannot discover the columns
+     */
+    private String getProjection(String sql, Parameter params, Class<?> clazz) {
+        String key = clazz.getName() + '\u0000' + sql;
+        String projection = projectionCache.get(key);
+        if (projection != null) {
+            return projection;
+        }
+
+        String emptySql = "SELECT * FROM (" + sql + " ) TB WHERE 1 = 0";
+        List<String> labels;
+        try {
+            logStatement(emptySql, params);
+            labels = doRetryableQuery(emptySql, params, null, rs -> {
+                ResultSetMetaData metaData = rs.getMetaData();
+                List<String> result = new ArrayList<>(metaData.getColumnCount());
+                for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                    result.add(metaData.getColumnLabel(i));
+                }
+                return result;
+            });
+        } catch (DataAccessException ex) {
+            logger.debug("Cannot discover the columns of paging query, select all columns : {}", ex.getMessage());
+            projectionCache.put(key, "*");
+            return "*";
+        }
+
+        projection = projectionOf(labels, BeanPropertyIndex.of(clazz), getDialect());
+        projectionCache.put(key, projection);
+        return projection;
+    }
+
+    private static String projectionOf(List<String> labels, BeanPropertyIndex index, Dialects dialect) {
+        StringBuilder projection = new StringBuilder();
+        int mapped = 0;
+        for (String label : labels) {
+            if (index.getPropertyPath(label) == null && index.getSetter(label) == null) {
+                continue;
+            }
+            if (!PROJECTION_COLUMN.matcher(label).matches() || !isUnquotedCase(label, dialect)) {
+                return "*";
+            }
+            projection.append((mapped++ == 0) ? "TB." : ", TB.").append(label);
+        }
+        return (mapped == 0 || mapped == labels.size()) ? "*" : projection.toString();
+    }
+
+    /**
+     * Check the label is the same as its unquoted identifier (the case folding of the database),
+     * e.g. the label of "orderId" alias cannot be selected as TB.orderId on Oracle and PostgreSQL
+     * @param label The column label
+     * @param dialect The database dialect
+     * @return true when the label can be selected without quote
+     */
+    private static boolean isUnquotedCase(String label, Dialects dialect) {
+        switch (dialect) {
+            case MYSQL:
+            case MSSQL:
+                return true;
+            case POSTGRESQL:
+                return label.equals(label.toLowerCase(Locale.ROOT));
+            default:
+                return label.equals(label.toUpperCase(Locale.ROOT));
+        }
+    }
 
+    /**
+     * Build the canonical order by clause (ORDER BY COLUMN ASC, COLUMN DESC)
+     * @param sorts The sort columns and directions
+     * @param sortColumns The allowed sort columns, null for any valid column name
+     * @return The order by clause
+     * @throws IllegalArgumentException When the column or direction is invalid
+     */
+    static String orderByClause(Map<String, String> sorts, Collection<String> sortColumns) {
+        StringBuilder orderBy = new StringBuilder(" ORDER BY ");
         boolean first = true;
-        for (Map.Entry<String, String> map : paging.getSorts().entrySet()) {
-            if (first) {
-                sql.append(" ORDER BY ").append(map.getKey())
-                        .append(" ").append(map.getValue());
-                first = false;
-            } else {
-                sql.append(", ").append(map.getKey())
-                        .append(" ").append(map.getValue());
+        for (Map.Entry<String, String> sort : sorts.entrySet()) {
+            if (!first) {
+                orderBy.append(", ");
             }
+            orderBy.append(sortColumn(sort.getKey(), sortColumns)).append(' ').append(sortDirection(sort));
+            first = false;
         }
+        return orderBy.toString();
+    }
+
+    private static String sortColumn(String column, Collection<String> sortColumns) {
+        String name = (column == null) ? "" : column.trim();
+        if (!SORT_COLUMN.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid sort column : " + column);
+        }
+        if (sortColumns == null) {
+            return name;
+        }
+
+        for (String allowed : sortColumns) {
+            if (allowed.equalsIgnoreCase(name)) {
+                return allowed;
+            }
+        }
+        throw new IllegalArgumentException("Sort column is not allowed : " + column);
+    }
+
+    private static String sortDirection(Map.Entry<String, String> sort) {
+        String direction = (sort.getValue() == null) ? "" : sort.getValue().trim();
+        if (direction.isEmpty() || "ASC".equalsIgnoreCase(direction)) {
+            return "ASC";
+        } else if ("DESC".equalsIgnoreCase(direction)) {
+            return "DESC";
+        }
+        throw new IllegalArgumentException("Invalid sort direction of " + sort.getKey() + " : " + direction);
     }
 
     /*++++++++++++++++++ SQL -> Number ++++++++++++++++++ */
@@ -466,14 +871,170 @@ public abstract class JdbcDao implements InitializingBean {
         return queryToObject(sql, params, Number.class);
     }
 
+    /*++++++++++++++++++ LOB streaming ++++++++++++++++++ */
+    /**
+     * Query the LOB column (the first column of first row) and stream the content to the output stream
+     * with bounded buffer, the content is not materialized
+     * @param sql The sql statement
+     * @param params The sql statement parameter
+     * @see IndexParameter
+     * @see NameParameter
+     * @param out The output stream (not closed)
+     * @return Total bytes, -1 when no row or the value is null
+     */
+    public long queryLob(String sql, Parameter params, OutputStream out) {
+        return queryLob(sql, params, (ResultSetExtractor<Long>) rs -> {
+            try (InputStream in = rs.getBinaryStream(1)) {
+                return (in == null) ? -1L : Lobs.copy(in, out);
+            } catch (IOException ex) {
+                throw new SQLException("Cannot stream LOB column", ex);
+            }
+        });
+    }
+
+    /**
+     * Query the LOB column (the first column of first row) and stream the content to the file channel
+     * with bounded buffer, the content is not materialized
+     * @param sql The sql statement
+     * @param params The sql statement parameter
+     * @see IndexParameter
+     * @see NameParameter
+     * @param channel The file channel (written at current position, not closed)
+     * @return Total bytes, -1 when no row or the value is null
+     */
+    public long queryLob(String sql, Parameter params, FileChannel channel) {
+        return queryLob(sql, params, (ResultSetExtractor<Long>) rs -> {
+            try (InputStream in = rs.getBinaryStream(1)) {
+                return (in == null) ? -1L : Lobs.copy(in, channel);
+            } catch (IOException ex) {
+                throw new SQLException("Cannot stream LOB column", ex);
+            }
+        });
+    }
+
+    /**
+     * Query the CLOB column (the first column of first row) and stream the content to the writer
+     * with bounded buffer, the content is not materialized
+     * @param sql The sql statement
+     * @param params The sql statement parameter
+     * @see IndexParameter
+     * @see NameParameter
+     * @param out The writer (not closed)
+     * @return Total characters, -1 when no row or the value is null
+     */
+    public long queryLob(String sql, Parameter params, Writer out) {
+        return queryLob(sql, params, (ResultSetExtractor<Long>) rs -> {
+            try (Reader in = rs.getCharacterStream(1)) {
+                return (in == null) ? -1L : Lobs.copy(in, out);
+            } catch (IOException ex) {
+                throw new SQLException("Cannot stream LOB column", ex);
+            }
+        });
+    }
+
+    private long queryLob(String sql, Parameter params, ResultSetExtractor<Long> copier) {
+        logStatement(sql, params);
+        // not retried, the content may be partially written to the output
+        QueryStatement statement = new QueryStatement(sql, params, null);
+        Long total = doQuery(statement, rs -> rs.next() ? copier.extractData(rs) : -1L, false);
+        return (total == null) ? -1L : total;
+    }
+
+    /*++++++++++++++++++ Export ++++++++++++++++++ */
+    /**
+     * Export the query result as CSV (with header) straight from the ResultSet to the writer
+     * @param sql The sql statement
+     * @param params The sql statement parameter
+     * @see IndexParameter
+     * @see NameParameter
+     * @param out The writer (flushed, not closed)
+     * @return Total rows
+     */
+    public long exportCsv(String sql, Parameter params, Writer out) {
+        return export(sql, params, new CsvExportExtractor(out), null);
+    }
+
+    /**
+     * Export the query result as CSV (with header, UTF-8) straight from the ResultSet to the output stream
+     * @param sql The sql statement
+     * @param params The sql statement parameter
+     * @see IndexParameter
+     * @see NameParameter
+     * @param out The output stream (flushed, not closed)
+     * @return Total rows
+     */
+    public long exportCsv(String sql, Parameter params, OutputStream out) {
+        return exportCsv(sql, params, ExportExtractor.writer(out));
+    }
+
+    /**
+     * Export the query result as JSON Lines (one object per row) straight from the ResultSet to the writer
+     * @param sql The sql statement
+     * @param params The sql statement parameter
+     * @see IndexParameter
+     * @see NameParameter
+     * @param out The writer (flushed, not closed)
+     * @return Total rows
+     */
+    public long exportJsonLines(String sql, Parameter params, Writer out) {
+        return export(sql, params, new JsonLinesExportExtractor(out), null);
+    }
+
+    /**
+     * Export the query result as JSON Lines (UTF-8) straight from the ResultSet to the output stream
+     * @param sql The sql statement
+     * @param params The sql statement parameter
+     * @see IndexParameter
+     * @see NameParameter
+     * @param out The output stream (flushed, not closed)
+     * @return Total rows
+     */
+    public long exportJsonLines(String sql, Parameter params, OutputStream out) {
+        return exportJsonLines(sql, params, ExportExtractor.writer(out));
+    }
+
+    /**
+     * Export the query result by the export extractor (e.g. CsvExportExtractor with custom delimiter)
+     * @param sql The sql statement
+     * @param params The sql statement parameter
+     * @see IndexParameter
+     * @see NameParameter
+     * @param extractor The export extractor
+     * @param hints The query hints (forward-only), null or no fetch size for default fetch size (1000 rows)
+     * @return Total rows
+     */
+    public long export(String sql, Parameter params, ExportExtractor extractor, QueryHints hints) {
+        logStatement(sql, params);
+        QueryHints exportHints = QueryHints.fetchSize(EXPORT_FETCH_SIZE);
+        if (hints != null) {
+            exportHints.setMaxRows(hints.getMaxRows());
+            exportHints.setQueryTimeout(hints.getQueryTimeout());
+            exportHints.setReadOnly(hints.isReadOnly());
+            if (hints.getFetchSize() != null) {
+                exportHints.setFetchSize(hints.getFetchSize());
+            }
+        }
+        // not retried, the rows may be partially written to the output
+        Long rows = doQuery(new QueryStatement(sql, params, exportHints), extractor, false);
+        return (rows == null) ? 0L : rows;
+    }
+
     /*++++++++++++++++++ Procedure ++++++++++++++++++ */
     public void executeProcedure(final ProcedureCriteria criteria) throws SQLException {
         if (Validators.isNull(criteria) || Validators.isEmpty(criteria.getName())) {
             throw new SQLException("Invalid procedure name for dynamic call..");
         }
 
-        try (Connection conn = getConnection()) {
+        Bulkhead current = this.bulkhead;
+        if (current != null) {
+            current.acquire();
+        }
+        DataSource dataSource = getDataSource();
+        Connection conn = null;
+        try {
+            conn = DataSourceUtils.getConnection(dataSource);
             CallableStatement callSt = null;
+            List<Object> values = new ArrayList<>();
             try {
                 String sql = generateProcedureName(criteria);
                 callSt = conn.prepareCall(sql);
@@ -483,18 +1044,34 @@ public abstract class JdbcDao implements InitializingBean {
                     if (Validators.isNull(param) || Validators.isNull(param.getValue())) {
                         callSt.setObject(inx, null);
                     }
-                    callSt.setObject(inx, param.getValue(), param.getSqlType().getValue());
+                    int sqlType = param.getSqlType().getValue();
+                    Object value = LobValue.of(param.getValue(), sqlType);
+                    values.add(value);
+                    if (value instanceof SqlTypeValue) {
+                        ((SqlTypeValue) value).setTypeValue(callSt, inx, sqlType, null);
+                    } else {
+                        callSt.setObject(inx, value, sqlType);
+                    }
                     inx++;
                 }
 
                 logger.debug("Call PL/SQL Statement : {}", sql);
                 logger.debug("Call PL/SQL Parameter : {}", criteria.getParams());
 
+                long start = System.nanoTime();
                 callSt.execute();
+                recordStatistics(sql, start, 0);
 
             } finally {
+                StatementCreatorUtils.cleanupParameters(values);
                 close(callSt);
             }
+        } finally {
+            DataSourceUtils.releaseConnection(conn, dataSource);
+            if (current != null) {
+                current.release();
+            }
+            markWrite();
         }
     }
 
@@ -543,6 +1120,32 @@ public abstract class JdbcDao implements InitializingBean {
         return getDataSource().getConnection();
     }
 
+    /*++++++++++++++++++ Unit of work ++++++++++++++++++ */
+    /**
+     * Begin the unit of work, the DAO calls of the current thread share one connection
+     * and reuse the prepared statements of repeated SQL until it is closed.
+     * Join the Spring-managed transaction when it is active.
+     * @return The unit of work (must be closed)
+     */
+    public UnitOfWork beginUnitOfWork() {
+        return UnitOfWork.begin(getDataSource());
+    }
+
+    /**
+     * Execute the DAO calls within one unit of work
+     * @param work The DAO calls
+     * @return The result of work
+     * @param <R> Generic result class
+     */
+    public <R> R inUnitOfWork(Supplier<R> work) {
+        UnitOfWork uow = beginUnitOfWork();
+        try {
+            return work.get();
+        } finally {
+            uow.close();
+        }
+    }
+
     /**
      * Get active DataSource
      * @return The active DataSource (null when cannot get)
@@ -571,12 +1174,34 @@ public abstract class JdbcDao implements InitializingBean {
      */
     public int execute(String sql, Parameter params) {
         logStatement(sql, params);
+        return doUpdate(sql, params);
+    }
 
-        if (params instanceof NameParameter) {
-            return getNamedParameterJdbcTemplate().update(sql, params.toSqlParameter());
-        } else {
-            return getJdbcTemplate().update(sql, toArrays(params));
+    /**
+     * Execute the idempotent DML sql statement (e.g. update by key to the fixed values, upsert),
+     * the statement is retried on the transient errors by the retry policy
+     * @param sql The DML sql statement
+     * @param params The sql statement parameter
+     * @see IndexParameter
+     * @see NameParameter
+     * @return Total row of executing.
+     */
+    public int executeIdempotent(String sql, Parameter params) {
+        logStatement(sql, params);
+        if (retryPolicy == null || !isReplayable(params)) {
+            return doUpdate(sql, params);
         }
+        return retryPolicy.execute(() -> doUpdate(sql, params));
+    }
+
+    /**
+     * Execute the operation (the idempotent DAO calls) with retry on the transient errors by the retry policy
+     * @param operation The idempotent operation
+     * @return The result of operation
+     * @param <R> Generic result class
+     */
+    public <R> R retryable(Supplier<R> operation) {
+        return (retryPolicy == null) ? operation.get() : retryPolicy.execute(operation);
     }
 
     /**
@@ -586,11 +1211,184 @@ public abstract class JdbcDao implements InitializingBean {
      * @return Total row of executing.
      */
     public int execute(String sql, Object ... params) {
-        if (Validators.isEmpty(params)) {
-            return getJdbcTemplate().update(sql);
-        } else {
-            return getJdbcTemplate().update(sql, params);
+        return write(() -> {
+            long start = System.nanoTime();
+            int rows = Validators.isEmpty(params) ? getJdbcTemplate().update(sql)
+                    : getJdbcTemplate().update(sql, params);
+            recordStatistics(sql, start, rows);
+            return rows;
+        });
+    }
+
+    /*++++++++++++++++++ Bulk insert/upsert ++++++++++++++++++ */
+    /**
+     * Insert the collection of Java Bean, the columns are the simple properties of the bean (customerId to CUSTOMER_ID).
+     * The rows are sent as multi-row VALUES statement (MySQL, MS SQL Server, PostgreSQL) or JDBC batch of
+     * single row statement (Oracle array binding), chunked by the parameter limit of the database.
+     * The items of each bean class (e.g. the subclasses) are sent as the statements of its own columns.
+     * @param table The table name
+     * @param items The collection of Java Bean
+     * @return Total row of executing.
+     * @param <T> Generic bean class
+     */
+    public <T> int bulkInsert(String table, Collection<T> items) {
+        if (Validators.isEmpty(items)) {
+            return 0;
         }
+        return executeBulk(table, items, false);
+    }
+
+    /**
+     * Insert or update the collection of Java Bean by the key columns
+     * (MERGE for Oracle and MS SQL Server, ON DUPLICATE KEY for MySQL, ON CONFLICT for PostgreSQL).
+     * The items of each bean class (e.g. the subclasses) are sent as the statements of its own columns.
+     * The items of the duplicate key are sent once, the last item of the key wins.
+     * @param table The table name
+     * @param items The collection of Java Bean
+     * @param keyColumns The key (unique) columns or properties for matching exists row
+     * @return Total row of executing (as reported by JDBC driver).
+     * @param <T> Generic bean class
+     */
+    public <T> int bulkUpsert(String table, Collection<T> items, String... keyColumns) {
+        if (Validators.isEmpty(items)) {
+            return 0;
+        }
+
+        return executeBulk(table, items, true, keyColumns);
+    }
+
+    private <T> int executeBulk(String table, Collection<T> items, boolean upsert, String... keyColumns) {
+        Map<Class<?>, List<T>> groups = new LinkedHashMap<>();
+        for (T item : items) {
+            groups.computeIfAbsent(item.getClass(), clazz -> new ArrayList<>()).add(item);
+        }
+
+        // the statements of each bean class, resolved before executing
+        Dialects dialect = getDialect();
+        List<BeanColumns> columns = new ArrayList<>(groups.size());
+        List<BulkStatements> statements = new ArrayList<>(groups.size());
+        for (Class<?> clazz : groups.keySet()) {
+            BeanColumns beanColumns = BeanColumns.of(clazz);
+            columns.add(beanColumns);
+            statements.add(new BulkStatements(dialect, table, beanColumns, keyColumns));
+        }
+
+        int total = 0;
+        int inx = 0;
+        for (List<T> group : groups.values()) {
+            BulkStatements statement = statements.get(inx);
+            List<T> rows = upsert ? statement.distinctByKeys(group) : group;
+            total += executeBulk(statement, columns.get(inx), rows, upsert);
+            inx++;
+        }
+        return total;
+    }
+
+    private <T> int executeBulk(BulkStatements statements, BeanColumns columns, Collection<T> items, boolean upsert) {
+        int rowsPerStatement = statements.rowsPerStatement();
+        List<List<T>> chunks = new ArrayList<>(items.size() / rowsPerStatement + 1);
+        List<T> chunk = new ArrayList<>(rowsPerStatement);
+        for (T item : items) {
+            chunk.add(item);
+            if (chunk.size() == rowsPerStatement) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>(rowsPerStatement);
+            }
+        }
+
+        int total = 0;
+        if (!chunks.isEmpty()) {
+            String sql = upsert ? statements.upsert(rowsPerStatement) : statements.insert(rowsPerStatement);
+            total += executeBulkChunks(sql, columns, chunks, rowsPerStatement);
+        }
+        if (!chunk.isEmpty()) {
+            String sql = upsert ? statements.upsert(chunk.size()) : statements.insert(chunk.size());
+            List<List<T>> last = new ArrayList<>(1);
+            last.add(chunk);
+            total += executeBulkChunks(sql, columns, last, chunk.size());
+        }
+        return total;
+    }
+
+    private <T> int executeBulkChunks(String sql, BeanColumns columns, List<List<T>> chunks, int rowsPerStatement) {
+        logger.debug("Bulk SQL Statement ({} statements of {} rows) :\n {}", chunks.size(), rowsPerStatement, sql);
+
+        int batchSize = Math.max(1, BULK_BATCH_ROWS / rowsPerStatement);
+        long start = System.nanoTime();
+        int[][] results = write(() -> getJdbcTemplate().batchUpdate(sql, chunks, batchSize, (ps, rows) -> {
+            int inx = 1;
+            for (T row : rows) {
+                for (BeanColumns.Column col : columns.getColumns()) {
+                    StatementCreatorUtils.setParameterValue(ps, inx++, col.getSqlType(), col.getValue(row));
+                }
+            }
+        }));
+
+        int total = 0;
+        for (int[] batch : results) {
+            for (int count : batch) {
+                total += (count >= 0) ? count : rowsPerStatement;
+            }
+        }
+        recordStatistics(sql, start, total);
+        return total;
+    }
+
+    /**
+     * Execute the named DML sql statement for each Java Bean as JDBC batch, the named parameters are
+     * the property names or column names of the bean (customerId or CUSTOMER_ID).
+     * The statement is parsed once and the values are bound from the bean getters directly
+     * (the bindings are resolved once per bean class, the items can be of the subclasses).
+     * @param sql The named DML sql statement
+     * @param items The collection of Java Bean
+     * @see BeanParameter
+     * @return Total row of executing.
+     * @param <T> Generic bean class
+     */
+    public <T> int executeBatch(String sql, Collection<T> items) {
+        if (Validators.isEmpty(items)) {
+            return 0;
+        }
+
+        ParsedSql parsedSql = QueryStatement.getParsedSql(sql);
+        SqlParameterSource source = BeanParameter.of(items.iterator().next()).toSqlParameter();
+        String batchSql = NamedParameterUtils.substituteNamedParameters(parsedSql, source);
+        List<SqlParameter> sqlParams = NamedParameterUtils.buildSqlParameterList(parsedSql, source);
+        // the bindings of each bean class (e.g. the subclasses), resolved before executing
+        Map<Class<?>, BeanColumns.Column[]> bindings = new IdentityHashMap<>();
+        for (T item : items) {
+            bindings.computeIfAbsent(item.getClass(), clazz -> batchBindings(BeanColumns.of(clazz), sqlParams));
+        }
+
+        logger.debug("Batch SQL Statement ({} rows) :\n {}", items.size(), batchSql);
+        long start = System.nanoTime();
+        int[][] results = write(() -> getJdbcTemplate().batchUpdate(batchSql, items, BULK_BATCH_ROWS, (ps, item) -> {
+            BeanColumns.Column[] binds = bindings.get(item.getClass());
+            for (int i = 0; i < binds.length; i++) {
+                StatementCreatorUtils.setParameterValue(ps, i + 1, binds[i].getSqlType(), binds[i].getValue(item));
+            }
+        }));
+
+        int total = 0;
+        for (int[] batch : results) {
+            for (int count : batch) {
+                total += (count >= 0) ? count : 1;
+            }
+        }
+        recordStatistics(batchSql, start, total);
+        return total;
+    }
+
+    private static BeanColumns.Column[] batchBindings(BeanColumns columns, List<SqlParameter> sqlParams) {
+        BeanColumns.Column[] binds = new BeanColumns.Column[sqlParams.size()];
+        for (int i = 0; i < binds.length; i++) {
+            binds[i] = columns.getColumn(sqlParams.get(i).getName());
+            if (binds[i] == null) {
+                throw new IllegalArgumentException("No property '" + sqlParams.get(i).getName() + "' of "
+                        + columns.getBeanClass().getName());
+            }
+        }
+        return binds;
     }
 
     /**
@@ -620,39 +1418,189 @@ public abstract class JdbcDao implements InitializingBean {
         return JdbcUtils.sqlEndLike(value);
     }
 
-    private Object[] toArrays(Parameter params) {
-        if (Validators.isNull(params)) {
-            return new Object[] {};
+    /**
+     * Query with the extractor of caller (may have the side effects e.g. streaming to consumer), never retried
+     */
+    private <T> T doQuery(String sql, Parameter params, QueryHints hints, ResultSetExtractor<T> rse) {
+        return doQuery(new QueryStatement(sql, params, hints), rse, false);
+    }
+
+    private <T> T doRetryableQuery(String sql, Parameter params, QueryHints hints, ResultSetExtractor<T> rse) {
+        return doRetryableQuery(sql, params, hints, rse, false);
+    }
+
+    /**
+     * Query with the extractor that built by DAO (no side effect), retried by the retry policy
+     * unless a parameter is the stream (cannot be read again)
+     */
+    private <T> T doRetryableQuery(String sql, Parameter params, QueryHints hints, ResultSetExtractor<T> rse,
+                                   boolean staleTolerant) {
+        QueryStatement statement = new QueryStatement(sql, params, hints);
+        if (retryPolicy != null && isReplayable(params)) {
+            return retryPolicy.execute(() -> doQuery(statement, rse, staleTolerant));
         }
-        return params.toArrayParameter();
+        return doQuery(statement, rse, staleTolerant);
     }
 
-    public boolean isOracle() {
-        try (Connection conn = getConnection()) {
-            return JdbcUtils.isOracle(conn);
-        } catch (SQLException ex) {
-            logger.error("isOracle : {}", ex.getMessage());
+    private static boolean isReplayable(Parameter params) {
+        Collection<ParameterValue> values;
+        if (params instanceof IndexParameter) {
+            values = ((IndexParameter) params).getParams();
+        } else if (params instanceof NameParameter) {
+            values = ((NameParameter) params).getParams().values();
+        } else {
+            return true;
         }
-        return false;
+
+        for (ParameterValue value : values) {
+            Object item = value.getValue();
+            if (item instanceof InputStream || item instanceof Reader
+                    || (item instanceof LobValue && !((LobValue) item).isReplayable())) {
+                return false;
+            }
+        }
+        return true;
     }
 
-    public boolean isMySql() {
-        try (Connection conn = getConnection()) {
-            return JdbcUtils.isMySql(conn);
-        } catch (SQLException ex) {
-            logger.error("isMySql : {}", ex.getMessage());
+    private <T> T doQuery(QueryStatement statement, ResultSetExtractor<T> rse, boolean staleTolerant) {
+        return isolate(() -> doQueryOnReplica(statement, rse, staleTolerant));
+    }
+
+    private <T> T doQueryOnReplica(QueryStatement statement, ResultSetExtractor<T> rse, boolean staleTolerant) {
+        ReplicaRouter.Replica replica = selectReplica(staleTolerant);
+        if (replica == null) {
+            return statement.query(getJdbcTemplate(), rse, fetchSizeAdvisor, sqlStatistics);
         }
 
-        return false;
+        long start = System.nanoTime();
+        try {
+            T result = statement.query(replica.getJdbcTemplate(), rse, fetchSizeAdvisor, sqlStatistics);
+            replica.recordLatency(System.nanoTime() - start);
+            return result;
+        } catch (CannotGetJdbcConnectionException ex) {
+            replicaRouter.recordFailure(replica);
+            logger.warn("Replica is not available, query on primary : {}", ex.getMessage());
+            return statement.query(getJdbcTemplate(), rse, fetchSizeAdvisor, sqlStatistics);
+        }
+    }
+
+    private ReplicaRouter.Replica selectReplica(boolean staleTolerant) {
+        if (replicaRouter == null || TransactionSynchronizationManager.isActualTransactionActive()
+                || UnitOfWork.isActive(getDataSource())) {
+            return null;
+        }
+        if (replicaRouter.isSticky() && !(staleTolerant && replicaRouter.isCountOnReplica())) {
+            return null;
+        }
+        return replicaRouter.select();
+    }
+
+    private int doUpdate(String sql, Parameter params) {
+        QueryStatement statement = new QueryStatement(sql, params, null);
+        return write(() -> statement.update(getJdbcTemplate(), sqlStatistics));
+    }
+
+    private void recordStatistics(String sql, long start, long rows) {
+        SqlStatistics statistics = this.sqlStatistics;
+        if (statistics != null) {
+            statistics.record(SqlFingerprints.of(sql), System.nanoTime() - start, 0, rows);
+        }
+    }
+
+    /**
+     * Execute the write operation and mark the write when it completes, also when it fails
+     * (the statement may be partially executed e.g. the failed chunk of a batch)
+     */
+    private <T> T write(Supplier<T> operation) {
+        try {
+            return isolate(operation);
+        } finally {
+            markWrite();
+        }
+    }
+
+    private <T> T isolate(Supplier<T> operation) {
+        Bulkhead current = this.bulkhead;
+        return (current == null) ? operation.get() : current.execute(operation);
+    }
+
+    /**
+     * Capture the routing of the current thread (the replica stickiness), to re-apply on the other thread
+     * @return The routing context
+     */
+    protected RoutingContext captureRouting() {
+        ReplicaRouter router = this.replicaRouter;
+        if (router == null) {
+            return new RoutingContext(null, 0, false);
+        }
+        return new RoutingContext(null, router.getLastWrite(), router.isSticky());
+    }
+
+    /**
+     * Execute the DAO operations with the routing captured on the other thread
+     * @param routing The routing context of captureRouting()
+     * @param operation The DAO operations
+     * @return The result of operations
+     * @param <R> Generic result class
+     */
+    protected <R> R withRouting(RoutingContext routing, Supplier<R> operation) {
+        ReplicaRouter router = this.replicaRouter;
+        if (router == null || routing.getLastWrite() == 0) {
+            return operation.get();
+        }
+        return router.withLastWrite(routing.getLastWrite(), operation);
+    }
+
+    private void markWrite() {
+        if (replicaRouter != null) {
+            replicaRouter.markWrite();
+        }
+        PagePrefetcher prefetcher = this.pagePrefetcher;
+        if (prefetcher == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // the other connections see the rows after commit
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    prefetcher.invalidate();
+                }
+            });
+        } else {
+            prefetcher.invalidate();
+        }
+    }
+
+    public boolean isOracle() {
+        return getDialect() == Dialects.ORACLE;
+    }
+
+    public boolean isMySql() {
+        return getDialect() == Dialects.MYSQL;
     }
 
     public boolean isMSSql() {
-        try (Connection conn = getConnection()) {
-            return JdbcUtils.isMsSql(conn);
-        } catch (SQLException ex) {
-            logger.error("isMSSql : {}", ex.getMessage());
+        return getDialect() == Dialects.MSSQL;
+    }
+
+    /**
+     * Get database dialect of the active DataSource (detect once and cached)
+     * @return The database dialect
+     */
+    public Dialects getDialect() {
+        Dialects value = dialect;
+        if (value == null) {
+            try {
+                value = getJdbcTemplate().execute((ConnectionCallback<Dialects>) conn ->
+                        Dialects.of(conn.getMetaData().getDatabaseProductName()));
+            } catch (DataAccessException ex) {
+                logger.error("getDialect : {}", ex.getMessage());
+                return Dialects.OTHER;
+            }
+            dialect = value;
         }
-        return false;
+        return value;
     }
 
     private String generateProcedureName(final ProcedureCriteria criteria) {
@@ -679,6 +1627,10 @@ public abstract class JdbcDao implements InitializingBean {
     }
 
     private void logStatement(String sql, Parameter params, Class<?> clazz) {
+        if (!logger.isDebugEnabled()) {
+            return;
+        }
+
         logger.debug("SQL Statement :\n {}", sql);
         if (params != null) {
             if (params instanceof NameParameter) {
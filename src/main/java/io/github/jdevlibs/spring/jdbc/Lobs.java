@@ -0,0 +1,131 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * The streaming read of BLOB/CLOB columns with bounded buffers, the content is not materialized.
+ * The streams are valid while the ResultSet is open.
+ * @author supot.jdev
+ * @version 1.0
+ */
+public final class Lobs {
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private Lobs() {
+    }
+
+    /**
+     * Check the property type is read as the LOB stream or locator (InputStream, Reader, Blob, Clob)
+     * @param type The property type
+     * @return true when streaming type
+     */
+    public static boolean isStreamType(Class<?> type) {
+        return InputStream.class.equals(type) || Reader.class.equals(type)
+                || Blob.class.equals(type) || Clob.class.equals(type);
+    }
+
+    /**
+     * Read the LOB column as the stream or locator of the property type
+     * @param rs The ResultSet
+     * @param column The column label
+     * @param type The property type (InputStream, Reader, Blob, Clob)
+     * @return The stream or locator, null when the value is null
+     * @throws SQLException When cannot read the column
+     */
+    public static Object getStream(ResultSet rs, String column, Class<?> type) throws SQLException {
+        if (InputStream.class.equals(type)) {
+            return rs.getBinaryStream(column);
+        } else if (Reader.class.equals(type)) {
+            return rs.getCharacterStream(column);
+        } else if (Blob.class.equals(type)) {
+            return rs.getBlob(column);
+        } else if (Clob.class.equals(type)) {
+            return rs.getClob(column);
+        }
+        throw new IllegalArgumentException("Not a LOB stream type : " + type.getName());
+    }
+
+    /**
+     * Copy the stream to the output stream
+     * @param in The input stream
+     * @param out The output stream
+     * @return Total bytes
+     * @throws IOException When cannot copy
+     */
+    public static long copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            total += read;
+        }
+        return total;
+    }
+
+    /**
+     * Copy the stream to the file channel (at the current position of channel)
+     * @param in The input stream
+     * @param channel The file channel
+     * @return Total bytes
+     * @throws IOException When cannot copy
+     */
+    public static long copy(InputStream in, FileChannel channel) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            byteBuffer.clear().limit(read);
+            while (byteBuffer.hasRemaining()) {
+                channel.write(byteBuffer);
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    /**
+     * Copy the reader to the writer
+     * @param in The reader
+     * @param out The writer
+     * @return Total characters
+     * @throws IOException When cannot copy
+     */
+    public static long copy(Reader in, Writer out) throws IOException {
+        char[] buffer = new char[BUFFER_SIZE / 2];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            total += read;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,409 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc;
+
+import io.github.jdevlibs.spring.jdbc.criteria.Criteria;
+import io.github.jdevlibs.spring.jdbc.criteria.IndexParameter;
+import io.github.jdevlibs.spring.jdbc.criteria.NameParameter;
+import io.github.jdevlibs.spring.jdbc.criteria.Paging;
+import io.github.jdevlibs.spring.jdbc.criteria.Parameter;
+import io.github.jdevlibs.spring.jdbc.criteria.ParameterValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Speculative next-page prefetch of queryWithPaging, when page N is served the page N+1 of the same
+ * (sql, parameters, sorts) is loaded on the low-priority executor to the short-TTL, size-bounded cache.
+ * The prefetched page is served once (removed on hit), the in-flight prefetch is awaited.
+ * The prefetch is skipped within transaction (the other connection cannot see the uncommitted rows)
+ * and backs off while the executor or the connection pool (busy check) is busy.
+ * The cache is cleared after the writes of the DAO (after commit within transaction), the pages loaded
+ * before the clear (generation) are not served.
+ * The routing of the caller (the bound shard and the replica stickiness) is part of the key
+ * and is re-applied by the loader on the prefetch thread.
+ * <pre>
+ * dao.setPagePrefetcher(new PagePrefetcher());
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class PagePrefetcher implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(PagePrefetcher.class);
+
+    private int maxEntries = 256;
+    private long ttlMillis = TimeUnit.SECONDS.toMillis(5);
+    private long backoffMillis = 1000;
+    private long maxBackoffMillis = TimeUnit.SECONDS.toMillis(30);
+    private Executor executor;
+    private boolean defaultExecutor;
+    private BooleanSupplier busyCheck;
+
+    private final Map<List<Object>, Entry> cache = new LinkedHashMap<>(64, 0.75f, true);
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong pausedUntil = new AtomicLong();
+    private final AtomicLong currentBackoff = new AtomicLong();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder prefetches = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * Load the page of the query
+     * @param <T> Generic item class
+     */
+    public interface PageLoader<T> {
+        Paging<T> load(Parameter params, Criteria criteria);
+    }
+
+    /**
+     * Serve the page from the prefetched pages or the loader, then prefetch the next page
+     * @param sql The sql statement (key)
+     * @param params The sql statement parameter (key)
+     * @param criteria The paging criteria
+     * @param clazz The item class
+     * @param sortColumns The allowed sort columns (key)
+     * @param routing The routing of the caller (key), the loader must re-apply it
+     * @param loader The page loader of the DAO
+     * @return The page
+     * @param <T> Generic item class
+     */
+    public <T> Paging<T> query(String sql, Parameter params, Criteria criteria, Class<T> clazz,
+                               Collection<String> sortColumns, RoutingContext routing, PageLoader<T> loader) {
+        if (criteria.isNullPaging() || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loader.load(params, criteria);
+        }
+        List<Object> key = keyOf(sql, params, criteria, criteria.getPage(), clazz, sortColumns, routing);
+        if (key == null) {
+            return loader.load(params, criteria);
+        }
+
+        requests.increment();
+        Parameter nextParams = copyOf(params);
+        Paging<T> paging = getPrefetched(key);
+        if (paging != null) {
+            hits.increment();
+            paging.setCriteria(criteria);
+            criteria.setTotalElement(paging.getTotalElements());
+        } else {
+            paging = loader.load(params, criteria);
+        }
+
+        if (nextParams != null && criteria.getPage() < paging.getTotalPages()) {
+            prefetch(sql, nextParams, criteria, paging.getTotalElements(), clazz, sortColumns, routing, loader);
+        }
+        return paging;
+    }
+
+    /**
+     * Remove all prefetched pages (e.g. after write)
+     */
+    public void invalidate() {
+        synchronized (cache) {
+            generation.incrementAndGet();
+            cache.clear();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Paging<T> getPrefetched(List<Object> key) {
+        Entry entry;
+        synchronized (cache) {
+            entry = cache.remove(key);
+        }
+        if (entry == null || entry.expiresAt < System.currentTimeMillis() || entry.generation != generation.get()) {
+            return null;
+        }
+
+        try {
+            Paging<T> paging = (Paging<T>) entry.future.get(ttlMillis, TimeUnit.MILLISECONDS);
+            // invalidated while loading, the page may be read before the write
+            return (entry.generation == generation.get()) ? paging : null;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException ex) {
+            return null;
+        }
+    }
+
+    private <T> void prefetch(String sql, Parameter params, Criteria criteria, long totalElements, Class<T> clazz,
+                              Collection<String> sortColumns, RoutingContext routing, PageLoader<T> loader) {
+        int nextPage = criteria.getPage() + 1;
+        List<Object> key = keyOf(sql, params, criteria, nextPage, clazz, sortColumns, routing);
+        if (key == null || isBusy()) {
+            skipped.increment();
+            return;
+        }
+
+        Criteria next = new Criteria();
+        next.setPagingAndSorting(criteria);
+        next.setPage(nextPage);
+        next.setSkipRowCount(true);
+        next.setTotalElement(totalElements);
+        next.setExistsOrderBy(criteria.isExistsOrderBy());
+        next.setHints(criteria.getHints());
+
+        CompletableFuture<Paging<?>> future = new CompletableFuture<>();
+        synchronized (cache) {
+            if (cache.containsKey(key)) {
+                return;
+            }
+            cache.put(key, new Entry(future, System.currentTimeMillis() + ttlMillis, generation.get()));
+            while (cache.size() > maxEntries) {
+                cache.remove(cache.keySet().iterator().next());
+            }
+        }
+
+        try {
+            getExecutor().execute(() -> load(key, future, params, next, loader));
+            prefetches.increment();
+        } catch (RejectedExecutionException ex) {
+            remove(key, future);
+            skipped.increment();
+            backoff();
+        }
+    }
+
+    private <T> void load(List<Object> key, CompletableFuture<Paging<?>> future, Parameter params, Criteria criteria,
+                          PageLoader<T> loader) {
+        try {
+            future.complete(loader.load(params, criteria));
+            currentBackoff.set(0);
+        } catch (RuntimeException ex) {
+            failures.increment();
+            logger.debug("Cannot prefetch page {} : {}", criteria.getPage(), ex.getMessage());
+            future.completeExceptionally(ex);
+            remove(key, future);
+        }
+    }
+
+    private void remove(List<Object> key, CompletableFuture<Paging<?>> future) {
+        synchronized (cache) {
+            Entry entry = cache.get(key);
+            if (entry != null && entry.future == future) {
+                cache.remove(key);
+            }
+        }
+    }
+
+    private boolean isBusy() {
+        if (System.currentTimeMillis() < pausedUntil.get()) {
+            return true;
+        }
+
+        Executor current = getExecutor();
+        boolean busy = busyCheck != null && busyCheck.getAsBoolean();
+        if (!busy && current instanceof ThreadPoolExecutor) {
+            ThreadPoolExecutor pool = (ThreadPoolExecutor) current;
+            busy = pool.getQueue().remainingCapacity() == 0;
+        }
+        if (busy) {
+            backoff();
+        }
+        return busy;
+    }
+
+    private void backoff() {
+        long backoff = currentBackoff.updateAndGet(prev -> (prev == 0) ? backoffMillis
+                : Math.min(prev * 2, maxBackoffMillis));
+        pausedUntil.set(System.currentTimeMillis() + backoff);
+        logger.debug("Page prefetch is paused for {} ms", backoff);
+    }
+
+    private static List<Object> keyOf(String sql, Parameter params, Criteria criteria, int page, Class<?> clazz,
+                                      Collection<String> sortColumns, RoutingContext routing) {
+        Object values;
+        if (params == null) {
+            values = null;
+        } else if (params instanceof IndexParameter) {
+            List<ParameterValue> list = ((IndexParameter) params).getParams();
+            List<Object> result = new ArrayList<>((list == null) ? 0 : list.size());
+            if (list != null) {
+                for (ParameterValue value : list) {
+                    result.add(value.getValue());
+                }
+            }
+            values = result;
+        } else if (params instanceof NameParameter) {
+            values = params.toMapParameter();
+        } else {
+            return null;
+        }
+
+        Map<String, String> sorts = criteria.isEmptySort() ? null : new LinkedHashMap<>(criteria.getSorts());
+        List<String> columns = (sortColumns == null) ? null : new ArrayList<>(sortColumns);
+        return Arrays.asList(sql, clazz, page, criteria.getSize(), sorts, columns, values, routing);
+    }
+
+    private static Parameter copyOf(Parameter params) {
+        if (params instanceof IndexParameter) {
+            return ((IndexParameter) params).copy();
+        } else if (params instanceof NameParameter) {
+            return ((NameParameter) params).copy();
+        } else if (params == null) {
+            return new IndexParameter();
+        }
+        return null;
+    }
+
+    private synchronized Executor getExecutor() {
+        if (executor == null) {
+            AtomicInteger counter = new AtomicInteger();
+            executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(8),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "page-prefetch-" + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        thread.setPriority(Thread.MIN_PRIORITY);
+                        return thread;
+                    }, new ThreadPoolExecutor.AbortPolicy());
+            defaultExecutor = true;
+        }
+        return executor;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (defaultExecutor && executor instanceof ThreadPoolExecutor) {
+            ((ThreadPoolExecutor) executor).shutdownNow();
+            executor = null;
+            defaultExecutor = false;
+        }
+        invalidate();
+    }
+
+    /**
+     * Set the executor of prefetch, default is one low-priority daemon thread with 8 queued pages.
+     * The ThreadPoolExecutor with the full queue is treated as busy.
+     * @param executor The executor
+     */
+    public synchronized void setExecutor(Executor executor) {
+        this.executor = executor;
+        this.defaultExecutor = false;
+    }
+
+    /**
+     * Set the busy check of the resources (e.g. the threads awaiting connection of the pool),
+     * the prefetch backs off while busy
+     * @param busyCheck The busy check
+     */
+    public void setBusyCheck(BooleanSupplier busyCheck) {
+        this.busyCheck = busyCheck;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    /**
+     * Set the time to live of the prefetched page (default 5 seconds)
+     * @param ttlMillis The time to live in milliseconds
+     */
+    public void setTtlMillis(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Set the initial pause when busy, doubled on consecutive busy until maxBackoffMillis
+     * @param backoffMillis The pause in milliseconds
+     */
+    public void setBackoffMillis(long backoffMillis) {
+        this.backoffMillis = backoffMillis;
+    }
+
+    public void setMaxBackoffMillis(long maxBackoffMillis) {
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    /**
+     * Get total pages that served from the prefetched pages
+     * @return The hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the ratio of pages served from the prefetched pages
+     * @return The hit ratio (0 to 1)
+     */
+    public double getHitRatio() {
+        long total = requests.sum();
+        return (total == 0) ? 0d : (double) hits.sum() / total;
+    }
+
+    public long getPrefetches() {
+        return prefetches.sum();
+    }
+
+    /**
+     * Get total prefetches that skipped (busy or not cacheable parameter)
+     * @return The skipped prefetches
+     */
+    public long getSkipped() {
+        return skipped.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    private static final class Entry {
+        private final CompletableFuture<Paging<?>> future;
+        private final long expiresAt;
+        private final long generation;
+
+        private Entry(CompletableFuture<Paging<?>> future, long expiresAt, long generation) {
+            this.future = future;
+            this.expiresAt = expiresAt;
+            this.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc;
+
+import io.github.jdevlibs.spring.BoundedCache;
+import io.github.jdevlibs.spring.jdbc.criteria.NameParameter;
+import io.github.jdevlibs.spring.jdbc.criteria.Parameter;
+import io.github.jdevlibs.spring.jdbc.criteria.QueryHints;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterDisposer;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.PreparedStatementCreatorFactory;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.SqlProvider;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
+import org.springframework.jdbc.core.namedparam.ParsedSql;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * The prepared statement of one DAO call, the named parameters are resolved to JDBC placeholders
+ * and the query hints are applied to this statement only.
+ * @author supot.jdev
+ * @version 1.0
+ */
+final class QueryStatement implements PreparedStatementCreator, SqlProvider {
+    private static final int PARSED_SQL_CACHE_SIZE = 256;
+    private static final BoundedCache<String, ParsedSql> PARSED_SQL_CACHE =
+            new BoundedCache<>(PARSED_SQL_CACHE_SIZE);
+
+    private final String sql;
+    private final Object[] args;
+    private final PreparedStatementCreatorFactory namedFactory;
+    private final QueryHints hints;
+    private String fingerprint;
+
+    QueryStatement(String sql, Parameter params, QueryHints hints) {
+        this.hints = (hints == null || hints.isEmpty()) ? null : hints;
+        if (params instanceof NameParameter) {
+            SqlParameterSource source = params.toSqlParameter();
+            ParsedSql parsedSql = getParsedSql(sql);
+            this.sql = NamedParameterUtils.substituteNamedParameters(parsedSql, source);
+            this.args = NamedParameterUtils.buildValueArray(parsedSql, source, null);
+            // The collection values of IN (:ids) are expanded by the setter as NamedParameterJdbcTemplate
+            this.namedFactory = new PreparedStatementCreatorFactory(this.sql,
+                    NamedParameterUtils.buildSqlParameterList(parsedSql, source));
+        } else {
+            this.sql = sql;
+            this.args = (params == null) ? new Object[0] : params.toArrayParameter();
+            this.namedFactory = null;
+        }
+    }
+
+    @Override
+    public String getSql() {
+        return sql;
+    }
+
+    Object[] getArgs() {
+        return args;
+    }
+
+    QueryHints getHints() {
+        return hints;
+    }
+
+    /**
+     * Get the fingerprint of the SQL, normalized once per statement (the retries reuse it)
+     * @return The fingerprint
+     */
+    String getFingerprint() {
+        String value = fingerprint;
+        if (value == null) {
+            value = SqlFingerprints.of(sql);
+            fingerprint = value;
+        }
+        return value;
+    }
+
+    @Override
+    public PreparedStatement createPreparedStatement(Connection con) throws SQLException {
+        int resultSetType = (hints == null) ? ResultSet.TYPE_FORWARD_ONLY : hints.getResultSetTypeOrDefault();
+        PreparedStatement cached = UnitOfWork.prepareStatement(con, sql, resultSetType);
+        if (cached != null) {
+            return cached;
+        }
+        if (hints != null && hints.getResultSetType() != null) {
+            return con.prepareStatement(sql, hints.getResultSetType(), ResultSet.CONCUR_READ_ONLY);
+        }
+        return con.prepareStatement(sql);
+    }
+
+    <T> T query(JdbcTemplate template, ResultSetExtractor<T> rse, FetchSizeAdvisor advisor,
+                SqlStatistics statistics) {
+        String fingerprint = (advisor == null && statistics == null) ? null : getFingerprint();
+        return template.execute(this, ps -> {
+            PreparedStatementSetter setter = newSetter();
+            boolean resetReadOnly = false;
+            try {
+                setter.setValues(ps);
+                if (advisor != null && (hints == null || hints.getFetchSize() == null)) {
+                    int fetchSize = advisor.getFetchSize(fingerprint);
+                    if (fetchSize > 0) {
+                        ps.setFetchSize(fetchSize);
+                    }
+                }
+                if (hints != null) {
+                    applyHints(template, ps);
+                    resetReadOnly = applyReadOnly(ps.getConnection());
+                }
+                long start = System.nanoTime();
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (fingerprint == null) {
+                        return rse.extractData(rs);
+                    }
+
+                    long executed = System.nanoTime();
+                    CountingResultSet counting = new CountingResultSet(rs);
+                    T result = rse.extractData(counting);
+                    long rows = counting.getRows();
+                    if (statistics != null) {
+                        statistics.record(fingerprint, executed - start, System.nanoTime() - executed, rows);
+                    }
+                    if (advisor != null) {
+                        advisor.record(fingerprint, rs.getMetaData(), rows);
+                    }
+                    return result;
+                }
+            } finally {
+                cleanup(setter);
+                if (resetReadOnly) {
+                    ps.getConnection().setReadOnly(false);
+                }
+            }
+        });
+    }
+
+    int update(JdbcTemplate template, SqlStatistics statistics) {
+        Integer result = template.execute(this, ps -> {
+            PreparedStatementSetter setter = newSetter();
+            try {
+                setter.setValues(ps);
+                if (hints != null) {
+                    applyHints(template, ps);
+                }
+                long start = System.nanoTime();
+                int rows = ps.executeUpdate();
+                if (statistics != null) {
+                    statistics.record(getFingerprint(), System.nanoTime() - start, 0, rows);
+                }
+                return rows;
+            } finally {
+                cleanup(setter);
+            }
+        });
+        return (result == null) ? 0 : result;
+    }
+
+    private PreparedStatementSetter newSetter() {
+        return (namedFactory == null) ? new ArgumentPreparedStatementSetter(args)
+                : namedFactory.newPreparedStatementSetter(args);
+    }
+
+    private static void cleanup(PreparedStatementSetter setter) {
+        if (setter instanceof ParameterDisposer) {
+            ((ParameterDisposer) setter).cleanupParameters();
+        }
+    }
+
+    private void applyHints(JdbcTemplate template, PreparedStatement ps) throws SQLException {
+        if (hints.getFetchSize() != null) {
+            ps.setFetchSize(hints.getFetchSize());
+        }
+        if (hints.getMaxRows() != null) {
+            ps.setMaxRows(hints.getMaxRows());
+        }
+        if (hints.getQueryTimeout() != null && template.getDataSource() != null) {
+            DataSourceUtils.applyTimeout(ps, template.getDataSource(), hints.getQueryTimeout());
+        }
+    }
+
+    private boolean applyReadOnly(Connection con) throws SQLException {
+        if (!hints.isReadOnly() || TransactionSynchronizationManager.isActualTransactionActive() || con.isReadOnly()) {
+            return false;
+        }
+        con.setReadOnly(true);
+        return true;
+    }
+
+    static ParsedSql getParsedSql(String sql) {
+        return PARSED_SQL_CACHE.get(sql, NamedParameterUtils::parseSqlStatement);
+    }
+}
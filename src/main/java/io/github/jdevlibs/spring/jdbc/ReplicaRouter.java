@@ -0,0 +1,234 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc;
+
+import io.github.jdevlibs.spring.jdbc.enums.ReplicaSelection;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Route the read queries to the replica databases (round-robin or latency-aware).
+ * The reads of the thread go to primary within the stickiness window after its write (read-your-writes),
+ * the stickiness is propagated to the prefetch and shard scatter threads of the DAO.
+ * The replica that cannot get the connection is ejected for the ejection time (the reads go to the other
+ * replicas or primary), then it is tried again by the next read.
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class ReplicaRouter {
+    private static final double SMOOTHING = 0.2;
+    private static final long FAILURE_PENALTY_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final List<Replica> replicas;
+    private final ReplicaSelection selection;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ThreadLocal<long[]> lastWrite = ThreadLocal.withInitial(() -> new long[1]);
+    private long stickinessNanos = TimeUnit.SECONDS.toNanos(1);
+    private long ejectionNanos = TimeUnit.SECONDS.toNanos(10);
+    private boolean countOnReplica;
+
+    public ReplicaRouter(List<JdbcTemplate> replicas) {
+        this(replicas, ReplicaSelection.ROUND_ROBIN);
+    }
+
+    public ReplicaRouter(List<JdbcTemplate> replicas, ReplicaSelection selection) {
+        List<Replica> list = new ArrayList<>(replicas.size());
+        for (JdbcTemplate template : replicas) {
+            template.setResultsMapCaseInsensitive(true);
+            list.add(new Replica(template));
+        }
+        this.replicas = Collections.unmodifiableList(list);
+        this.selection = selection;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public ReplicaSelection getSelection() {
+        return selection;
+    }
+
+    /**
+     * Set the read-your-writes window, the reads of the same thread go to primary after a write
+     * @param stickinessMillis The window in milliseconds, 0 for disable
+     */
+    public void setStickinessMillis(long stickinessMillis) {
+        this.stickinessNanos = TimeUnit.MILLISECONDS.toNanos(stickinessMillis);
+    }
+
+    /**
+     * Set the time that the failed replica is not selected (default 10 seconds)
+     * @param ejectionMillis The ejection time in milliseconds
+     */
+    public void setEjectionMillis(long ejectionMillis) {
+        this.ejectionNanos = TimeUnit.MILLISECONDS.toNanos(ejectionMillis);
+    }
+
+    public boolean isCountOnReplica() {
+        return countOnReplica;
+    }
+
+    /**
+     * Route the paging count queries to replica even within the stickiness window (default false),
+     * the total may not include the rows of the recent writes
+     * @param countOnReplica true for offload the count queries
+     */
+    public void setCountOnReplica(boolean countOnReplica) {
+        this.countOnReplica = countOnReplica;
+    }
+
+    /**
+     * Mark the current thread was written to primary
+     */
+    public void markWrite() {
+        if (stickinessNanos > 0) {
+            lastWrite.get()[0] = System.nanoTime();
+        }
+    }
+
+    /**
+     * Check the current thread is within the stickiness window after its last write
+     * @return true when the reads should go to primary
+     */
+    public boolean isSticky() {
+        long written = lastWrite.get()[0];
+        return written != 0 && System.nanoTime() - written < stickinessNanos;
+    }
+
+    long getLastWrite() {
+        return lastWrite.get()[0];
+    }
+
+    /**
+     * Execute the operation with the last write of the other thread (e.g. the caller of the prefetch)
+     * @param written The time of the last write (System.nanoTime), 0 when no write
+     * @param operation The operation
+     * @return The result of operation
+     * @param <R> Generic result class
+     */
+    <R> R withLastWrite(long written, Supplier<R> operation) {
+        long[] current = lastWrite.get();
+        long previous = current[0];
+        long applied = Math.max(previous, written);
+        current[0] = applied;
+        try {
+            return operation.get();
+        } finally {
+            if (current[0] == applied) {
+                current[0] = previous;
+            }
+        }
+    }
+
+    /**
+     * Select the replica for a read query, the ejected replicas are skipped
+     * @return The replica, null when no available replica
+     */
+    public Replica select() {
+        int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+
+        long now = System.nanoTime();
+        if (selection == ReplicaSelection.LATENCY_AWARE && size > 1) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            Replica first = available(random.nextInt(size), now);
+            Replica second = available(random.nextInt(size), now);
+            if (first == null || second == null) {
+                return first;
+            }
+            return (first.latencyNanos <= second.latencyNanos) ? first : second;
+        }
+        return available((next.getAndIncrement() & Integer.MAX_VALUE) % size, now);
+    }
+
+    /**
+     * Eject the replica that cannot get the connection for the ejection time
+     * @param replica The failed replica
+     */
+    void recordFailure(Replica replica) {
+        replica.recordFailure(ejectionNanos);
+    }
+
+    private Replica available(int start, long now) {
+        int size = replicas.size();
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.isAvailable(now)) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The replica database with the smoothed query latency
+     */
+    public static final class Replica {
+        private final JdbcTemplate jdbcTemplate;
+        private volatile double latencyNanos;
+        private volatile boolean ejected;
+        private volatile long ejectedUntil;
+
+        private Replica(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        public JdbcTemplate getJdbcTemplate() {
+            return jdbcTemplate;
+        }
+
+        public double getLatencyMillis() {
+            return latencyNanos / 1_000_000d;
+        }
+
+        /**
+         * Check the replica is ejected after the connection failure (until the next successful read)
+         * @return true when ejected
+         */
+        public boolean isEjected() {
+            return ejected;
+        }
+
+        private boolean isAvailable(long now) {
+            return !ejected || now - ejectedUntil >= 0;
+        }
+
+        void recordLatency(long nanos) {
+            double current = latencyNanos;
+            latencyNanos = (current == 0) ? nanos : current + SMOOTHING * (nanos - current);
+            ejected = false;
+        }
+
+        private void recordFailure(long ejectionNanos) {
+            double current = latencyNanos;
+            latencyNanos = (current == 0) ? FAILURE_PENALTY_NANOS
+                    : current + SMOOTHING * (FAILURE_PENALTY_NANOS - current);
+            ejectedUntil = System.nanoTime() + ejectionNanos;
+            ejected = true;
+        }
+    }
+}
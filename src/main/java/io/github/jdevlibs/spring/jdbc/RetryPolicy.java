@@ -0,0 +1,288 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Retry the idempotent operations on the transient errors (deadlock victim, serialization failure,
+ * connection pool timeout) with jittered exponential backoff. The operations within the transaction
+ * are never retried (the transaction must be retried as a whole).
+ * The nested operations are retried by the outermost operation only.
+ * The circuit breaker rejects the operations for a while after the consecutive failures (the retries are exhausted).
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class RetryPolicy {
+    private static final Logger logger = LoggerFactory.getLogger(RetryPolicy.class);
+
+    private int maxAttempts = 3;
+    private long initialBackoffMillis = 50;
+    private long maxBackoffMillis = 2000;
+    private double multiplier = 2d;
+    private int failureThreshold = 5;
+    private long openMillis = TimeUnit.SECONDS.toMillis(10);
+    private Predicate<Throwable> retryable = RetryPolicy::isTransient;
+
+    private final ThreadLocal<Boolean> retrying = new ThreadLocal<>();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openUntil = new AtomicLong();
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder recovered = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Execute the operation with retry
+     * @param operation The idempotent operation
+     * @return The result of operation
+     * @param <T> Generic result class
+     * @throws CircuitOpenException When the circuit breaker is open
+     */
+    public <T> T execute(Supplier<T> operation) {
+        if (TransactionSynchronizationManager.isActualTransactionActive() || retrying.get() != null) {
+            return operation.get();
+        }
+        checkCircuit();
+
+        retrying.set(Boolean.TRUE);
+        try {
+            return executeWithRetry(operation);
+        } finally {
+            retrying.remove();
+        }
+    }
+
+    private <T> T executeWithRetry(Supplier<T> operation) {
+        for (int attempt = 1; ; attempt++) {
+            attempts.increment();
+            try {
+                T result = operation.get();
+                if (attempt > 1) {
+                    recovered.increment();
+                }
+                onSuccess();
+                return result;
+            } catch (RuntimeException ex) {
+                if (!retryable.test(ex)) {
+                    // the database responded (e.g. constraint violation), closes the half-open circuit
+                    onSuccess();
+                    throw ex;
+                }
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    onFailure();
+                    throw ex;
+                }
+
+                long backoff = backoffMillis(attempt);
+                retries.increment();
+                logger.debug("Retry {} of {} in {} ms : {}", attempt, maxAttempts - 1, backoff, ex.getMessage());
+                sleep(backoff, ex);
+            }
+        }
+    }
+
+    /**
+     * Check the error is transient (TransientDataAccessException or RecoverableDataAccessException)
+     * @param ex The error
+     * @return true when retryable
+     */
+    public static boolean isTransient(Throwable ex) {
+        return ex instanceof TransientDataAccessException || ex instanceof RecoverableDataAccessException;
+    }
+
+    /**
+     * Check the circuit breaker is open (the operations are rejected)
+     * @return true when open
+     */
+    public boolean isCircuitOpen() {
+        return System.currentTimeMillis() < openUntil.get();
+    }
+
+    long backoffMillis(int attempt) {
+        double ceiling = Math.min(maxBackoffMillis, initialBackoffMillis * Math.pow(multiplier, attempt - 1));
+        return ThreadLocalRandom.current().nextLong((long) ceiling / 2, (long) ceiling + 1);
+    }
+
+    private void checkCircuit() {
+        long until = openUntil.get();
+        if (until == 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (now < until) {
+            rejected.increment();
+            throw new CircuitOpenException("Circuit breaker is open for " + (until - now) + " ms");
+        }
+
+        // half-open, one trial operation and the others wait for the result
+        if (!openUntil.compareAndSet(until, now + openMillis)) {
+            rejected.increment();
+            throw new CircuitOpenException("Circuit breaker is half-open");
+        }
+        consecutiveFailures.set(failureThreshold - 1);
+    }
+
+    private void onSuccess() {
+        if (consecutiveFailures.get() != 0) {
+            consecutiveFailures.set(0);
+            openUntil.set(0);
+        }
+    }
+
+    private void onFailure() {
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            openUntil.set(System.currentTimeMillis() + openMillis);
+            logger.warn("Circuit breaker is open for {} ms after {} failures", openMillis, failureThreshold);
+        }
+    }
+
+    private static void sleep(long millis, RuntimeException cause) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Set maximum attempts (the first attempt and the retries)
+     * @param maxAttempts The maximum attempts
+     */
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public long getInitialBackoffMillis() {
+        return initialBackoffMillis;
+    }
+
+    public void setInitialBackoffMillis(long initialBackoffMillis) {
+        this.initialBackoffMillis = initialBackoffMillis;
+    }
+
+    public long getMaxBackoffMillis() {
+        return maxBackoffMillis;
+    }
+
+    public void setMaxBackoffMillis(long maxBackoffMillis) {
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+    public void setMultiplier(double multiplier) {
+        this.multiplier = multiplier;
+    }
+
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    /**
+     * Set the consecutive failed operations (retries exhausted) to open the circuit breaker
+     * @param failureThreshold The failures
+     */
+    public void setFailureThreshold(int failureThreshold) {
+        this.failureThreshold = failureThreshold;
+    }
+
+    public long getOpenMillis() {
+        return openMillis;
+    }
+
+    /**
+     * Set the duration of open circuit breaker, then one trial operation is allowed (half-open)
+     * @param openMillis The duration in milliseconds
+     */
+    public void setOpenMillis(long openMillis) {
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * Set the retryable errors, default is the transient errors
+     * @param retryable The predicate of retryable errors
+     */
+    public void setRetryable(Predicate<Throwable> retryable) {
+        this.retryable = retryable;
+    }
+
+    public long getAttempts() {
+        return attempts.sum();
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    /**
+     * Get total operations that succeeded after retry
+     * @return The recovered operations
+     */
+    public long getRecovered() {
+        return recovered.sum();
+    }
+
+    /**
+     * Get total operations that failed after all attempts
+     * @return The exhausted operations
+     */
+    public long getExhausted() {
+        return exhausted.sum();
+    }
+
+    /**
+     * Get total operations that rejected by the open circuit breaker
+     * @return The rejected operations
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * The operation is rejected by the open circuit breaker
+     */
+    public static class CircuitOpenException extends DataAccessResourceFailureException {
+        private static final long serialVersionUID = 1L;
+
+        public CircuitOpenException(String msg) {
+            super(msg);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * The routing of the DAO operations captured on the caller thread (the bound shard and the replica stickiness),
+ * re-applied when the operations run on the other thread (prefetch or scatter).
+ * The equality is the bound shard and the stickiness (not the time of the last write).
+ * @author supot.jdev
+ * @version 1.0
+ */
+public final class RoutingContext {
+    private final JdbcTemplate shard;
+    private final long lastWrite;
+    private final boolean sticky;
+
+    RoutingContext(JdbcTemplate shard, long lastWrite, boolean sticky) {
+        this.shard = shard;
+        this.lastWrite = lastWrite;
+        this.sticky = sticky;
+    }
+
+    /**
+     * Get the bound shard of the caller
+     * @return The JdbcTemplate of the shard, null when not bound
+     */
+    public JdbcTemplate getShard() {
+        return shard;
+    }
+
+    /**
+     * Get the time (System.nanoTime) of the last write of the caller
+     * @return The time of the last write, 0 when no write
+     */
+    public long getLastWrite() {
+        return lastWrite;
+    }
+
+    /**
+     * Check the reads of the caller go to primary (within the stickiness window)
+     * @return true when sticky
+     */
+    public boolean isSticky() {
+        return sticky;
+    }
+
+    RoutingContext withShard(JdbcTemplate shard) {
+        return new RoutingContext(shard, lastWrite, sticky);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof RoutingContext)) {
+            return false;
+        }
+        RoutingContext other = (RoutingContext) obj;
+        return shard == other.shard && sticky == other.sticky;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(shard) + (sticky ? 1 : 0);
+    }
+}
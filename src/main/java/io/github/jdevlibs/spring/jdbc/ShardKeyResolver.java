@@ -0,0 +1,42 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc;
+
+/**
+ * Resolve the shard of the shard key.
+ * @author supot.jdev
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface ShardKeyResolver {
+
+    /**
+     * Resolve the shard index of the shard key
+     * @param shardKey The shard key (customer id, tenant id, etc.)
+     * @param totalShards Total shards
+     * @return The shard index (start with 0)
+     */
+    int resolve(Object shardKey, int totalShards);
+
+    /**
+     * The resolver by hash code of the shard key
+     * @return The shard key resolver
+     */
+    static ShardKeyResolver hash() {
+        return (shardKey, totalShards) -> Math.floorMod(shardKey.hashCode(), totalShards);
+    }
+}
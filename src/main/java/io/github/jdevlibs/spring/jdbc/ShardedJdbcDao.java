@@ -0,0 +1,408 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc;
+
+import io.github.jdevlibs.spring.BeanColumns;
+import io.github.jdevlibs.spring.jdbc.criteria.Criteria;
+import io.github.jdevlibs.spring.jdbc.criteria.IndexParameter;
+import io.github.jdevlibs.spring.jdbc.criteria.NameParameter;
+import io.github.jdevlibs.spring.jdbc.criteria.Paging;
+import io.github.jdevlibs.spring.jdbc.criteria.Parameter;
+import io.github.jdevlibs.spring.jdbc.criteria.QueryHints;
+import io.github.jdevlibs.spring.jdbc.enums.Dialects;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The DAO of sharded databases. The operations within onShard(...) go to the shard of the shard key,
+ * queryToList (of the result class), queryWithPaging, queryToPaging, queryAsPagingResult and countForPaging
+ * without shard scatter to all shards in parallel and gather the results (the paging results are merged by
+ * Criteria.sorts, each shard returns the first offset + size rows, and the counts are summed).
+ * The other operations (the writes, executeProcedure, queryToList of RowMapper, the single-row, map, columnar
+ * and export queries) must be within onShard(...), otherwise IllegalStateException is thrown.
+ * <p>
+ * The merge of the paging results compares the property values in Java (natural ordering of Comparable,
+ * or the string comparator e.g. java.text.Collator), which may differ from the collation of the database
+ * (e.g. case-insensitive or locale-aware ORDER BY), set the string comparator to match the database collation.
+ * @author supot.jdev
+ * @version 1.0
+ */
+public abstract class ShardedJdbcDao extends JdbcDao implements DisposableBean {
+    private final ThreadLocal<JdbcTemplate> currentShard = new ThreadLocal<>();
+    private List<JdbcTemplate> shards = Collections.emptyList();
+    private Map<JdbcTemplate, NamedParameterJdbcTemplate> namedTemplates = Collections.emptyMap();
+    private Comparator<String> stringComparator;
+    private ShardKeyResolver shardKeyResolver = ShardKeyResolver.hash();
+    private ExecutorService executor;
+    private boolean defaultExecutor;
+
+    /**
+     * Set the shard databases, the first shard is the default JdbcTemplate of this DAO
+     * @param shards The JdbcTemplate of each shard
+     */
+    public void setShards(List<JdbcTemplate> shards) {
+        List<JdbcTemplate> list = new ArrayList<>(shards);
+        Map<JdbcTemplate, NamedParameterJdbcTemplate> named = new IdentityHashMap<>();
+        for (JdbcTemplate template : list) {
+            template.setResultsMapCaseInsensitive(true);
+            named.put(template, new NamedParameterJdbcTemplate(template));
+        }
+        this.shards = Collections.unmodifiableList(list);
+        this.namedTemplates = named;
+        setJdbcTemplate(list.isEmpty() ? null : list.get(0));
+    }
+
+    public List<JdbcTemplate> getShards() {
+        return shards;
+    }
+
+    public void setShardKeyResolver(ShardKeyResolver shardKeyResolver) {
+        this.shardKeyResolver = shardKeyResolver;
+    }
+
+    /**
+     * Set the comparator of the string sort values of the merged paging results (e.g. java.text.Collator
+     * of the database locale), default is the natural ordering (case-sensitive, by UTF-16 code unit)
+     * @param stringComparator The string comparator, null for natural ordering
+     */
+    public void setStringComparator(Comparator<String> stringComparator) {
+        this.stringComparator = stringComparator;
+    }
+
+    /**
+     * Set the executor of scatter queries, default is a fixed thread pool of total shards
+     * @param executor The executor
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+        this.defaultExecutor = false;
+    }
+
+    @Override
+    public void destroy() {
+        if (defaultExecutor && executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Get the JdbcTemplate of the current shard (within onShard)
+     * @return The JdbcTemplate
+     * @throws IllegalStateException When the current thread is not within onShard(...)
+     */
+    @Override
+    public JdbcTemplate getJdbcTemplate() {
+        JdbcTemplate template = currentShard.get();
+        if (template == null) {
+            throw new IllegalStateException("No shard is bound, execute within onShard(shardKey, ...)"
+                    + " (only queryToList, the paging queries and countForPaging scatter to all shards)");
+        }
+        return template;
+    }
+
+    /**
+     * Get the NamedParameterJdbcTemplate of the current shard (within onShard)
+     * @return The NamedParameterJdbcTemplate
+     * @throws IllegalStateException When the current thread is not within onShard(...)
+     */
+    @Override
+    public NamedParameterJdbcTemplate getNamedParameterJdbcTemplate() {
+        return namedTemplates.get(getJdbcTemplate());
+    }
+
+    /**
+     * Get database dialect of the shards (detect once on the first shard and cached)
+     * @return The database dialect
+     */
+    @Override
+    public Dialects getDialect() {
+        if (isShardBound() || shards.isEmpty()) {
+            return super.getDialect();
+        }
+        return onShard(shards.get(0), ShardedJdbcDao.super::getDialect);
+    }
+
+    /**
+     * Get the JdbcTemplate of the shard key
+     * @param shardKey The shard key
+     * @return The JdbcTemplate of the shard
+     */
+    public JdbcTemplate getShard(Object shardKey) {
+        return shards.get(shardKeyResolver.resolve(shardKey, shards.size()));
+    }
+
+    /**
+     * Execute the DAO operations on the shard of the shard key
+     * <pre>
+     * List&lt;Order&gt; orders = onShard(customerId, () -&gt; queryToList(sql, params, Order.class));
+     * </pre>
+     * @param shardKey The shard key
+     * @param operation The DAO operations
+     * @return The result of operations
+     * @param <R> Generic result class
+     */
+    public <R> R onShard(Object shardKey, Supplier<R> operation) {
+        return onShard(getShard(shardKey), operation);
+    }
+
+    /**
+     * Check the current thread is within onShard(...)
+     * @return true when the operations go to single shard
+     */
+    public boolean isShardBound() {
+        return currentShard.get() != null;
+    }
+
+    @Override
+    protected RoutingContext captureRouting() {
+        return super.captureRouting().withShard(currentShard.get());
+    }
+
+    @Override
+    protected <R> R withRouting(RoutingContext routing, Supplier<R> operation) {
+        if (routing.getShard() == null) {
+            return super.withRouting(routing, operation);
+        }
+        return onShard(routing.getShard(), () -> ShardedJdbcDao.super.withRouting(routing, operation));
+    }
+
+    @Override
+    public <T> List<T> queryToList(String sql, Parameter params, Class<T> clazz, QueryHints hints) {
+        if (isShardBound()) {
+            return super.queryToList(sql, params, clazz, hints);
+        }
+
+        List<T> results = new ArrayList<>();
+        for (List<T> items : scatter(shard -> ShardedJdbcDao.super.queryToList(sql, params, clazz, hints))) {
+            results.addAll(items);
+        }
+        return results;
+    }
+
+    @Override
+    public <T> Paging<T> queryWithPaging(String sql, Parameter params, Criteria criteria, Class<T> clazz,
+                                         Collection<String> sortColumns) {
+        if (isShardBound() || criteria.isNullPaging()) {
+            return super.queryWithPaging(sql, params, criteria, clazz, sortColumns);
+        }
+
+        Paging<T> paging = new Paging<>();
+        if (!criteria.isSkipRowCount() || criteria.getTotalElement() == null) {
+            long count = 0;
+            for (Long value : scatter(shard -> ShardedJdbcDao.super.countForPaging(sql, copyOf(params)))) {
+                count += value;
+            }
+            paging.setTotalElements(count);
+            criteria.setTotalElement(count);
+        } else {
+            paging.setTotalElements(criteria.getTotalElement());
+        }
+
+        paging.setItems(scatterPage(sql, params, criteria, clazz, sortColumns));
+        paging.setCriteria(criteria);
+        paging.calculateTotalPage();
+
+        return paging;
+    }
+
+    @Override
+    public <T> List<T> queryToPaging(String sql, Parameter params, Criteria criteria, Class<T> clazz,
+                                     Collection<String> sortColumns) {
+        if (isShardBound()) {
+            return super.queryToPaging(sql, params, criteria, clazz, sortColumns);
+        }
+        return scatterPage(sql, params, criteria, clazz, sortColumns);
+    }
+
+    @Override
+    public Long countForPaging(String sql, Parameter params) {
+        if (isShardBound()) {
+            return super.countForPaging(sql, params);
+        }
+
+        long count = 0;
+        for (Long value : scatter(shard -> ShardedJdbcDao.super.countForPaging(sql, copyOf(params)))) {
+            count += value;
+        }
+        return count;
+    }
+
+    private <R> R onShard(JdbcTemplate shard, Supplier<R> operation) {
+        JdbcTemplate previous = currentShard.get();
+        currentShard.set(shard);
+        try {
+            return operation.get();
+        } finally {
+            if (previous == null) {
+                currentShard.remove();
+            } else {
+                currentShard.set(previous);
+            }
+        }
+    }
+
+    private <R> List<R> scatter(Function<JdbcTemplate, R> operation) {
+        ExecutorService service = getExecutor();
+        RoutingContext routing = captureRouting();
+        List<Future<R>> futures = new ArrayList<>(shards.size());
+        for (JdbcTemplate shard : shards) {
+            futures.add(service.submit(() -> withRouting(routing.withShard(shard), () -> operation.apply(shard))));
+        }
+
+        List<R> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<R> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Interrupted while waiting shard query", ex);
+        } catch (ExecutionException ex) {
+            futures.forEach(future -> future.cancel(true));
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IllegalStateException("Shard query failed", ex.getCause());
+        }
+        return results;
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            AtomicInteger counter = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(Math.max(1, shards.size()), runnable -> {
+                Thread thread = new Thread(runnable, "shard-query-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            defaultExecutor = true;
+        }
+        return executor;
+    }
+
+    private static Parameter copyOf(Parameter params) {
+        if (params instanceof IndexParameter) {
+            return ((IndexParameter) params).copy();
+        } else if (params instanceof NameParameter) {
+            return ((NameParameter) params).copy();
+        } else if (params == null) {
+            return new IndexParameter();
+        }
+        return params;
+    }
+
+    private <T> List<T> scatterPage(String sql, Parameter params, Criteria criteria, Class<T> clazz,
+                                    Collection<String> sortColumns) {
+        boolean all = criteria.isNullPaging();
+        int offset = all ? 0 : criteria.getMySqlOffset();
+        int size = all ? Integer.MAX_VALUE : criteria.getSize();
+        Criteria shardCriteria = criteria;
+        if (!all) {
+            shardCriteria = new Criteria();
+            shardCriteria.setSorts(criteria.getSorts());
+            shardCriteria.setHints(criteria.getHints());
+            shardCriteria.setPage(1);
+            shardCriteria.setSize(offset + size);
+        }
+
+        Criteria pageCriteria = shardCriteria;
+        List<List<T>> pages = scatter(shard -> ShardedJdbcDao.super.queryToPaging(sql, copyOf(params),
+                pageCriteria, clazz, sortColumns));
+        return mergePage(pages, criteria, clazz, offset, size);
+    }
+
+    private <T> List<T> mergePage(List<List<T>> pages, Criteria criteria, Class<T> clazz, int offset, int size) {
+        List<T> results = new ArrayList<>();
+        if (criteria.isEmptySort()) {
+            int skip = offset;
+            for (List<T> page : pages) {
+                for (T item : page) {
+                    if (skip > 0) {
+                        skip--;
+                    } else if (results.size() < size) {
+                        results.add(item);
+                    }
+                }
+            }
+            return results;
+        }
+
+        Comparator<T> comparator = sortComparator(criteria.getSorts(), clazz, stringComparator);
+        PriorityQueue<int[]> heads = new PriorityQueue<>(Math.max(1, pages.size()),
+                (a, b) -> comparator.compare(pages.get(a[0]).get(a[1]), pages.get(b[0]).get(b[1])));
+        for (int i = 0; i < pages.size(); i++) {
+            if (!pages.get(i).isEmpty()) {
+                heads.add(new int[]{i, 0});
+            }
+        }
+
+        int position = 0;
+        while (!heads.isEmpty() && results.size() < size) {
+            int[] head = heads.poll();
+            List<T> page = pages.get(head[0]);
+            if (position++ >= offset) {
+                results.add(page.get(head[1]));
+            }
+            if (++head[1] < page.size()) {
+                heads.add(head);
+            }
+        }
+        return results;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Comparator<T> sortComparator(Map<String, String> sorts, Class<T> clazz,
+                                                    Comparator<String> stringComparator) {
+        BeanColumns columns = BeanColumns.of(clazz);
+        Comparator<T> result = null;
+        for (Map.Entry<String, String> sort : sorts.entrySet()) {
+            String name = sort.getKey();
+            BeanColumns.Column column = columns.getColumn(name.substring(name.lastIndexOf('.') + 1));
+            if (column == null) {
+                throw new IllegalArgumentException("Sort column '" + name + "' is not a property of "
+                        + clazz.getName());
+            }
+
+            boolean desc = "DESC".equalsIgnoreCase(sort.getValue());
+            Comparator<Comparable> values = (stringComparator == null || column.getType() != String.class)
+                    ? Comparator.<Comparable>naturalOrder() : (a, b) -> stringComparator.compare((String) a, (String) b);
+            Comparator<Comparable> order = desc ? Comparator.nullsFirst(values.reversed())
+                    : Comparator.nullsLast(values);
+            Comparator<T> comparator = Comparator.comparing(item -> (Comparable) column.getValue(item), order);
+            result = (result == null) ? comparator : result.thenComparing(comparator);
+        }
+        return result;
+    }
+}
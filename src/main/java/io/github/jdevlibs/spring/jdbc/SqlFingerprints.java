@@ -0,0 +1,200 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc;
+
+import io.github.jdevlibs.spring.BoundedCache;
+
+/**
+ * Normalize the SQL statement to the fingerprint, the statements that differ only by literal values
+ * have the same fingerprint (SELECT * FROM T WHERE ID IN (1, 2) AND NAME = 'A' to
+ * SELECT * FROM T WHERE ID IN (...) AND NAME = ?).
+ * @author supot.jdev
+ * @version 1.0
+ */
+public final class SqlFingerprints {
+    private static final int CACHE_SIZE = 512;
+    private static final BoundedCache<String, String> CACHE = new BoundedCache<>(CACHE_SIZE);
+
+    private SqlFingerprints() {
+    }
+
+    /**
+     * Get the fingerprint of the SQL statement, the literals are replaced by ?, the IN lists are collapsed,
+     * the comments are removed and the whitespaces are collapsed.
+     * @param sql The SQL statement
+     * @return The fingerprint
+     */
+    public static String of(String sql) {
+        if (sql == null) {
+            return null;
+        }
+
+        return CACHE.get(sql, SqlFingerprints::normalize);
+    }
+
+    static String normalize(String sql) {
+        StringBuilder out = new StringBuilder(sql.length());
+        int len = sql.length();
+        int i = 0;
+        while (i < len) {
+            char ch = sql.charAt(i);
+            if (ch == '\'') {
+                i = skipQuoted(sql, i);
+                out.append('?');
+            } else if (ch == '"' || ch == '`' || ch == '[') {
+                int end = skipIdentifier(sql, i);
+                out.append(sql, i, end);
+                i = end;
+            } else if (ch == '-' && i + 1 < len && sql.charAt(i + 1) == '-') {
+                i = skipLine(sql, i);
+                appendSpace(out);
+            } else if (ch == '/' && i + 1 < len && sql.charAt(i + 1) == '*') {
+                i = skipBlock(sql, i);
+                appendSpace(out);
+            } else if (Character.isWhitespace(ch)) {
+                appendSpace(out);
+                i++;
+            } else if (Character.isDigit(ch) && !isIdentifierPart(out)) {
+                i = skipNumber(sql, i);
+                out.append('?');
+            } else {
+                out.append(ch);
+                i++;
+            }
+        }
+
+        int last = out.length() - 1;
+        if (last >= 0 && out.charAt(last) == ' ') {
+            out.setLength(last);
+        }
+        return collapseInLists(out);
+    }
+
+    private static String collapseInLists(StringBuilder sql) {
+        StringBuilder out = new StringBuilder(sql.length());
+        int len = sql.length();
+        int i = 0;
+        while (i < len) {
+            int end = matchInList(sql, i);
+            if (end > 0) {
+                out.append(sql, i, i + 2).append(" (...)");
+                i = end;
+            } else {
+                out.append(sql.charAt(i++));
+            }
+        }
+        return out.toString();
+    }
+
+    private static int matchInList(CharSequence sql, int start) {
+        int len = sql.length();
+        if (start + 2 >= len || (sql.charAt(start) | 0x20) != 'i' || (sql.charAt(start + 1) | 0x20) != 'n') {
+            return -1;
+        }
+        if (start > 0 && isIdentifierChar(sql.charAt(start - 1))) {
+            return -1;
+        }
+
+        int i = start + 2;
+        if (i < len && sql.charAt(i) == ' ') {
+            i++;
+        }
+        if (i >= len || sql.charAt(i) != '(') {
+            return -1;
+        }
+
+        boolean value = false;
+        for (i++; i < len; i++) {
+            char ch = sql.charAt(i);
+            if (ch == ')') {
+                return value ? i + 1 : -1;
+            } else if (ch == '?') {
+                value = true;
+            } else if (ch != ',' && ch != ' ') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipQuoted(String sql, int start) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == '\'') {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == '\'') {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipIdentifier(String sql, int start) {
+        char close = (sql.charAt(start) == '[') ? ']' : sql.charAt(start);
+        int end = sql.indexOf(close, start + 1);
+        return (end < 0) ? sql.length() : end + 1;
+    }
+
+    private static int skipLine(String sql, int start) {
+        int end = sql.indexOf('\n', start);
+        return (end < 0) ? sql.length() : end + 1;
+    }
+
+    private static int skipBlock(String sql, int start) {
+        int end = sql.indexOf("*/", start + 2);
+        return (end < 0) ? sql.length() : end + 2;
+    }
+
+    private static int skipNumber(String sql, int start) {
+        int i = start;
+        int len = sql.length();
+        while (i < len && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+            i++;
+        }
+        if (i < len && (sql.charAt(i) == 'e' || sql.charAt(i) == 'E')) {
+            int exp = i + 1;
+            if (exp < len && (sql.charAt(exp) == '+' || sql.charAt(exp) == '-')) {
+                exp++;
+            }
+            if (exp < len && Character.isDigit(sql.charAt(exp))) {
+                i = exp;
+                while (i < len && Character.isDigit(sql.charAt(i))) {
+                    i++;
+                }
+            }
+        }
+        return i;
+    }
+
+    private static void appendSpace(StringBuilder out) {
+        int len = out.length();
+        if (len > 0 && out.charAt(len - 1) != ' ') {
+            out.append(' ');
+        }
+    }
+
+    private static boolean isIdentifierPart(StringBuilder out) {
+        return out.length() > 0 && isIdentifierChar(out.charAt(out.length() - 1));
+    }
+
+    private static boolean isIdentifierChar(char ch) {
+        return Character.isLetterOrDigit(ch) || ch == '_' || ch == '$' || ch == ':' || ch == '.';
+    }
+}
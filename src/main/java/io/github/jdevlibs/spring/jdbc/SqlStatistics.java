@@ -0,0 +1,253 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc;
+
+import lombok.Data;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The statistics of the executed SQL statements by fingerprint (count, latency percentiles, rows and mapping time).
+ * The counters are striped (LongAdder) and the latency is recorded to a log-linear histogram (about 25% precision),
+ * no lock on record.
+ * @see SqlFingerprints
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class SqlStatistics implements SqlStatisticsMXBean {
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_BUCKETS = 2 * SUB_BUCKETS;
+    private static final int MAX_EXPONENT = 36;
+    private static final int BUCKETS = LINEAR_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS - 1) * SUB_BUCKETS;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+    private int maxStatements = 5000;
+    private int topStatements = 20;
+
+    /**
+     * Record the executed statement
+     * @param fingerprint The SQL fingerprint
+     * @param executeNanos The execution time (until the first result) in nanoseconds
+     * @param mappingNanos The result reading and mapping time in nanoseconds
+     * @param rows Total rows that read or updated
+     */
+    public void record(String fingerprint, long executeNanos, long mappingNanos, long rows) {
+        Entry entry = entries.get(fingerprint);
+        if (entry == null) {
+            if (entries.size() >= maxStatements) {
+                dropped.increment();
+                return;
+            }
+            entry = entries.computeIfAbsent(fingerprint, key -> new Entry());
+        }
+        entry.record(executeNanos, mappingNanos, rows);
+    }
+
+    /**
+     * Get the snapshot of statements order by total time (execution and mapping), the slowest first
+     * @param limit Maximum statements
+     * @return The statement statistics
+     */
+    public List<Statement> getTopStatements(int limit) {
+        return getTopStatements(limit, Comparator.comparingDouble(Statement::getTotalMillis).reversed());
+    }
+
+    /**
+     * Get the snapshot of statements order by the comparator
+     * @param limit Maximum statements
+     * @param comparator The order of statements
+     * @return The statement statistics
+     */
+    public List<Statement> getTopStatements(int limit, Comparator<Statement> comparator) {
+        List<Statement> result = new ArrayList<>(entries.size());
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            result.add(entry.getValue().snapshot(entry.getKey()));
+        }
+        result.sort(comparator);
+        return (result.size() > limit) ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    @Override
+    public List<Statement> getTopStatements() {
+        return getTopStatements(topStatements);
+    }
+
+    @Override
+    public List<Statement> getTopP99Statements() {
+        return getTopStatements(topStatements, Comparator.comparingDouble(Statement::getP99Millis).reversed());
+    }
+
+    @Override
+    public int getStatementCount() {
+        return entries.size();
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void reset() {
+        entries.clear();
+        dropped.reset();
+    }
+
+    public int getMaxStatements() {
+        return maxStatements;
+    }
+
+    /**
+     * Set maximum fingerprints are tracked, the new fingerprints are counted as dropped when full
+     * @param maxStatements Maximum fingerprints
+     */
+    public void setMaxStatements(int maxStatements) {
+        this.maxStatements = maxStatements;
+    }
+
+    public int getTopStatementsLimit() {
+        return topStatements;
+    }
+
+    public void setTopStatementsLimit(int topStatements) {
+        this.topStatements = topStatements;
+    }
+
+    /**
+     * Register this statistics to the platform MBean server
+     * @param name The object name (e.g. io.github.jdevlibs:type=SqlStatistics,name=orderDao)
+     * @return The registered object name
+     * @throws JMException When cannot register
+     */
+    public ObjectName registerMBean(String name) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName(name);
+        if (!server.isRegistered(objectName)) {
+            server.registerMBean(this, objectName);
+        }
+        return objectName;
+    }
+
+    static int bucketOf(long micros) {
+        if (micros < LINEAR_BUCKETS) {
+            return (int) Math.max(micros, 0);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent >= MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int sub = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + sub;
+    }
+
+    static long bucketUpperBound(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+        int sub = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    private static final class Entry {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder executeNanos = new LongAdder();
+        private final LongAdder mappingNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+        private void record(long execute, long mapping, long rowCount) {
+            long total = execute + mapping;
+            count.increment();
+            rows.add(rowCount);
+            executeNanos.add(execute);
+            mappingNanos.add(mapping);
+            maxNanos.accumulate(total);
+            histogram.incrementAndGet(bucketOf(TimeUnit.NANOSECONDS.toMicros(total)));
+        }
+
+        private Statement snapshot(String fingerprint) {
+            long[] buckets = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = histogram.get(i);
+                total += buckets[i];
+            }
+
+            Statement stats = new Statement();
+            stats.setFingerprint(fingerprint);
+            stats.setCount(count.sum());
+            stats.setRows(rows.sum());
+            stats.setExecuteMillis(executeNanos.sum() / 1_000_000d);
+            stats.setMappingMillis(mappingNanos.sum() / 1_000_000d);
+            stats.setTotalMillis(stats.getExecuteMillis() + stats.getMappingMillis());
+            stats.setMaxMillis(maxNanos.get() / 1_000_000d);
+            stats.setP50Millis(percentile(buckets, total, 0.50d));
+            stats.setP99Millis(percentile(buckets, total, 0.99d));
+            return stats;
+        }
+
+        private static double percentile(long[] buckets, long total, double percentile) {
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(total * percentile);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return bucketUpperBound(i) / 1000d;
+                }
+            }
+            return bucketUpperBound(buckets.length - 1) / 1000d;
+        }
+    }
+
+    /**
+     * The statistics snapshot of one SQL fingerprint
+     */
+    @Data
+    public static class Statement implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private String fingerprint;
+        private long count;
+        private long rows;
+        private double executeMillis;
+        private double mappingMillis;
+        private double totalMillis;
+        private double maxMillis;
+        private double p50Millis;
+        private double p99Millis;
+    }
+}
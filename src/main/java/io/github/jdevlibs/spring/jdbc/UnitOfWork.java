@@ -0,0 +1,260 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.ConnectionHolder;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pin one connection of the DataSource to the current thread across a sequence of DAO calls,
+ * the prepared statements of repeated SQL are reused within the unit of work.
+ * Join the connection of Spring-managed transaction when it already bound.
+ * <pre>
+ * try (UnitOfWork uow = dao.beginUnitOfWork()) {
+ *     ...
+ * }
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public final class UnitOfWork implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(UnitOfWork.class);
+    private static final int DEFAULT_MAX_STATEMENTS = 64;
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    private final DataSource dataSource;
+    private final Connection connection;
+    private final boolean bound;
+    private final UnitOfWork previous;
+    private final Map<String, CachedStatement> statements;
+    private int depth = 1;
+    private long hits;
+    private long misses;
+
+    private UnitOfWork(DataSource dataSource, Connection connection, boolean bound, UnitOfWork previous,
+                       int maxStatements) {
+        this.dataSource = dataSource;
+        this.connection = connection;
+        this.bound = bound;
+        this.previous = previous;
+        this.statements = new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() > maxStatements && !eldest.getValue().inUse) {
+                    eldest.getValue().closeTarget();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Begin the unit of work of the DataSource on the current thread, join the active one when exists
+     * @param dataSource The DataSource
+     * @return The unit of work (must be closed)
+     */
+    public static UnitOfWork begin(DataSource dataSource) {
+        return begin(dataSource, DEFAULT_MAX_STATEMENTS);
+    }
+
+    /**
+     * Begin the unit of work of the DataSource on the current thread, join the active one when exists
+     * @param dataSource The DataSource
+     * @param maxStatements Maximum prepared statements are cached
+     * @return The unit of work (must be closed)
+     */
+    public static UnitOfWork begin(DataSource dataSource, int maxStatements) {
+        UnitOfWork active = find(dataSource);
+        if (active != null) {
+            active.depth++;
+            return active;
+        }
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        boolean bound = false;
+        if (!TransactionSynchronizationManager.hasResource(dataSource)) {
+            TransactionSynchronizationManager.bindResource(dataSource, new ConnectionHolder(connection));
+            bound = true;
+        }
+
+        UnitOfWork uow = new UnitOfWork(dataSource, connection, bound, CURRENT.get(), maxStatements);
+        CURRENT.set(uow);
+        return uow;
+    }
+
+    /**
+     * Check the unit of work of the DataSource is active on the current thread
+     * @param dataSource The DataSource
+     * @return true when active
+     */
+    public static boolean isActive(DataSource dataSource) {
+        return find(dataSource) != null;
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    public long getStatementHits() {
+        return hits;
+    }
+
+    public long getStatementMisses() {
+        return misses;
+    }
+
+    @Override
+    public void close() {
+        if (--depth > 0) {
+            return;
+        }
+
+        for (CachedStatement statement : statements.values()) {
+            statement.closeTarget();
+        }
+        statements.clear();
+
+        if (CURRENT.get() == this) {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+        if (bound) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(dataSource);
+        }
+        DataSourceUtils.releaseConnection(connection, dataSource);
+    }
+
+    /**
+     * Get the cached prepared statement of the connection of active unit of work
+     * @param con The connection
+     * @param sql The sql statement
+     * @param resultSetType The result set type
+     * @return The prepared statement, null when the connection is not within unit of work
+     * @throws SQLException When cannot prepare statement
+     */
+    static PreparedStatement prepareStatement(Connection con, String sql, int resultSetType) throws SQLException {
+        for (UnitOfWork uow = CURRENT.get(); uow != null; uow = uow.previous) {
+            if (uow.connection == con) {
+                return uow.prepare(sql, resultSetType);
+            }
+        }
+        return null;
+    }
+
+    private PreparedStatement prepare(String sql, int resultSetType) throws SQLException {
+        String key = resultSetType + ":" + sql;
+        CachedStatement statement = statements.get(key);
+        if (statement != null && !statement.inUse && !statement.target.isClosed()) {
+            hits++;
+            return statement.checkout();
+        }
+
+        misses++;
+        PreparedStatement target = prepareTarget(sql, resultSetType);
+        if (statement != null && statement.inUse) {
+            return target;
+        }
+
+        statement = new CachedStatement(target);
+        statements.put(key, statement);
+        return statement.checkout();
+    }
+
+    private PreparedStatement prepareTarget(String sql, int resultSetType) throws SQLException {
+        if (resultSetType == ResultSet.TYPE_FORWARD_ONLY) {
+            return connection.prepareStatement(sql);
+        }
+        return connection.prepareStatement(sql, resultSetType, ResultSet.CONCUR_READ_ONLY);
+    }
+
+    private static UnitOfWork find(DataSource dataSource) {
+        for (UnitOfWork uow = CURRENT.get(); uow != null; uow = uow.previous) {
+            if (uow.dataSource == dataSource) {
+                return uow;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The prepared statement is returned to the cache (instead of closed) when it is closed by JdbcTemplate
+     */
+    private static final class CachedStatement implements InvocationHandler {
+        private final PreparedStatement target;
+        private final PreparedStatement proxy;
+        private boolean inUse;
+
+        private CachedStatement(PreparedStatement target) {
+            this.target = target;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, this);
+        }
+
+        private PreparedStatement checkout() throws SQLException {
+            target.setFetchSize(0);
+            target.setMaxRows(0);
+            target.setQueryTimeout(0);
+            inUse = true;
+            return proxy;
+        }
+
+        private void closeTarget() {
+            try {
+                target.close();
+            } catch (SQLException ex) {
+                logger.debug("Close cached statement : {}", ex.getMessage());
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("close".equals(name)) {
+                inUse = false;
+                target.clearParameters();
+                return null;
+            } else if ("isClosed".equals(name)) {
+                return !inUse || target.isClosed();
+            }
+
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getTargetException();
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc.criteria;
+
+import io.github.jdevlibs.spring.BeanColumns;
+import org.springframework.jdbc.core.namedparam.AbstractSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The named parameter of the Java Bean properties, the parameter name is the property name
+ * or the column name (customerId or CUSTOMER_ID). The values are read from the bean when the statement
+ * is bound (no parameter map) and the SQL types are inferred once per class.
+ * The added parameters take precedence over the bean properties.
+ * <pre>
+ * dao.execute("UPDATE CUSTOMER SET NAME = :name WHERE CUSTOMER_ID = :customerId", BeanParameter.of(customer));
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class BeanParameter extends NameParameter {
+    private final Object bean;
+    private final BeanColumns columns;
+
+    public BeanParameter(Object bean) {
+        super(2);
+        this.bean = bean;
+        this.columns = BeanColumns.of(bean.getClass());
+    }
+
+    public static BeanParameter of(Object bean) {
+        return new BeanParameter(bean);
+    }
+
+    public Object getBean() {
+        return bean;
+    }
+
+    @Override
+    public Map<String, Object> toMapParameter() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (BeanColumns.Column col : columns.getColumns()) {
+            result.put(col.getName(), col.getValue(bean));
+        }
+        result.putAll(super.toMapParameter());
+        return result;
+    }
+
+    @Override
+    public SqlParameterSource toSqlParameter() {
+        return new BeanSqlParameterSource(bean, columns, super.toSqlParameter());
+    }
+
+    @Override
+    public BeanParameter copy() {
+        BeanParameter result = new BeanParameter(bean);
+        result.getParams().putAll(getParams());
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "BeanParameter [" + bean + "]";
+    }
+
+    /**
+     * SqlParameterSource that reads the values from the bean properties
+     */
+    private static final class BeanSqlParameterSource extends AbstractSqlParameterSource {
+        private final Object bean;
+        private final BeanColumns columns;
+        private final SqlParameterSource added;
+
+        private BeanSqlParameterSource(Object bean, BeanColumns columns, SqlParameterSource added) {
+            this.bean = bean;
+            this.columns = columns;
+            this.added = added;
+        }
+
+        @Override
+        public boolean hasValue(String paramName) {
+            return added.hasValue(paramName) || columns.getColumn(paramName) != null;
+        }
+
+        @Override
+        public Object getValue(String paramName) {
+            if (added.hasValue(paramName)) {
+                return added.getValue(paramName);
+            }
+
+            BeanColumns.Column col = columns.getColumn(paramName);
+            if (col == null) {
+                throw new IllegalArgumentException("No property '" + paramName + "' of "
+                        + bean.getClass().getName());
+            }
+            return col.getValue(bean);
+        }
+
+        @Override
+        public int getSqlType(String paramName) {
+            if (added.hasValue(paramName)) {
+                return added.getSqlType(paramName);
+            }
+
+            int sqlType = super.getSqlType(paramName);
+            if (sqlType != TYPE_UNKNOWN) {
+                return sqlType;
+            }
+            BeanColumns.Column col = columns.getColumn(paramName);
+            return (col == null) ? TYPE_UNKNOWN : col.getSqlType();
+        }
+
+        @Override
+        public String[] getParameterNames() {
+            String[] names = new String[columns.size()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = columns.getColumns().get(i).getName();
+            }
+            return names;
+        }
+    }
+}
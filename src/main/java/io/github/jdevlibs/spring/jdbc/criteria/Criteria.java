@@ -36,6 +36,7 @@ public class Criteria implements Serializable {
     private boolean skipRowCount;
     private boolean existsOrderBy;
     private Long totalElement;
+    private QueryHints hints;
 
     public int getMySqlOffset() {
         return getRowStart();
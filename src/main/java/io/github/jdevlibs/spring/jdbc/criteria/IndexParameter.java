@@ -63,7 +63,7 @@ public class IndexParameter implements Parameter {
         Object[] values = new Object[params.size()];
         int inx = 0;
         for (ParameterValue obj : params) {
-            values[inx++] = obj.getValue();
+            values[inx++] = obj.getBindValue();
         }
         return values;
     }
@@ -83,6 +83,18 @@ public class IndexParameter implements Parameter {
         return params;
     }
 
+    /**
+     * Copy this parameter (the values are shared)
+     * @return The new parameter
+     */
+    public IndexParameter copy() {
+        IndexParameter result = new IndexParameter(size);
+        if (params != null) {
+            result.getParams().addAll(params);
+        }
+        return result;
+    }
+
     @Override
     public String toString() {
         return "IndexParameter [" + params + "]";
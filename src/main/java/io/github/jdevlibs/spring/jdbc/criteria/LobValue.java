@@ -0,0 +1,167 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc.criteria;
+
+import org.springframework.jdbc.core.DisposableSqlTypeValue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * The BLOB/CLOB parameter value that is streamed to the database (setBinaryStream/setCharacterStream),
+ * the content is not materialized to byte[] or String.
+ * <pre>
+ * params.add(LobValue.ofFile(path));
+ * params.add(LobValue.ofBinary(inputStream, length));
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class LobValue implements DisposableSqlTypeValue {
+    private final InputStream binary;
+    private final Reader character;
+    private final Path path;
+    private final long length;
+    private InputStream opened;
+
+    private LobValue(InputStream binary, Reader character, Path path, long length) {
+        this.binary = binary;
+        this.character = character;
+        this.path = path;
+        this.length = length;
+    }
+
+    /**
+     * Create the BLOB value of the stream (the stream is closed by caller)
+     * @param stream The content stream
+     * @param length The content length in bytes, -1 when unknown
+     * @return The LOB value
+     */
+    public static LobValue ofBinary(InputStream stream, long length) {
+        return new LobValue(stream, null, null, length);
+    }
+
+    /**
+     * Create the CLOB value of the reader (the reader is closed by caller)
+     * @param reader The content reader
+     * @param length The content length in characters, -1 when unknown
+     * @return The LOB value
+     */
+    public static LobValue ofCharacter(Reader reader, long length) {
+        return new LobValue(null, reader, null, length);
+    }
+
+    /**
+     * Create the BLOB value of the file, the file is opened on binding and closed after the statement
+     * @param path The file path
+     * @return The LOB value
+     */
+    public static LobValue ofFile(Path path) {
+        try {
+            return new LobValue(null, null, path, Files.size(path));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Create the LOB value of the stream value by the parameter type (InputStream, Reader or Path of BLOB)
+     * @param value The value
+     * @param type The parameter type (BLOB or CLOB)
+     * @return The LOB value, the value when it is not a stream
+     */
+    public static Object of(Object value, int type) {
+        if (type != Types.BLOB && type != Types.CLOB) {
+            return value;
+        } else if (value instanceof InputStream) {
+            return ofBinary((InputStream) value, -1);
+        } else if (value instanceof Reader) {
+            return ofCharacter((Reader) value, -1);
+        } else if (value instanceof Path && type == Types.BLOB) {
+            return ofFile((Path) value);
+        }
+        return value;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public boolean isCharacter() {
+        return character != null;
+    }
+
+    /**
+     * Check the value can be bound again (the file is re-opened), the stream value can be read once
+     * @return true when the value is the file
+     */
+    public boolean isReplayable() {
+        return path != null;
+    }
+
+    @Override
+    public void setTypeValue(PreparedStatement ps, int paramIndex, int sqlType, String typeName) throws SQLException {
+        if (character != null) {
+            if (length < 0) {
+                ps.setCharacterStream(paramIndex, character);
+            } else {
+                ps.setCharacterStream(paramIndex, character, length);
+            }
+            return;
+        }
+
+        InputStream stream = binary;
+        if (path != null) {
+            try {
+                opened = Files.newInputStream(path);
+            } catch (IOException ex) {
+                throw new SQLException("Cannot open LOB file " + path, ex);
+            }
+            stream = opened;
+        }
+        if (length < 0) {
+            ps.setBinaryStream(paramIndex, stream);
+        } else {
+            ps.setBinaryStream(paramIndex, stream, length);
+        }
+    }
+
+    @Override
+    public void cleanup() {
+        if (opened != null) {
+            try {
+                opened.close();
+            } catch (IOException ignored) {
+                // the statement is already executed
+            }
+            opened = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LobValue [" + ((path != null) ? path : (character != null) ? "CLOB" : "BLOB")
+                + ", length=" + length + "]";
+    }
+}
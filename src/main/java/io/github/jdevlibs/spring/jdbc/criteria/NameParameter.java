@@ -64,7 +64,7 @@ public class NameParameter implements Parameter {
         for (Map.Entry<String, ParameterValue> map : params.entrySet()) {
             Integer sqlType = map.getValue().getType();
             if (sqlType != null) {
-                param.addValue(map.getKey(), map.getValue().getValue(), sqlType);
+                param.addValue(map.getKey(), map.getValue().getBindValue(), sqlType);
             } else {
                 param.addValue(map.getKey(), map.getValue().getValue());
             }
@@ -98,6 +98,18 @@ public class NameParameter implements Parameter {
         return params;
     }
 
+    /**
+     * Copy this parameter (the values are shared)
+     * @return The new parameter
+     */
+    public NameParameter copy() {
+        NameParameter result = new NameParameter(size);
+        if (params != null) {
+            result.getParams().putAll(params);
+        }
+        return result;
+    }
+
     @Override
     public String toString() {
         return "NameParameter [" + params + "]";
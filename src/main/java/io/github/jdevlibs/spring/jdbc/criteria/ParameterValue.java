@@ -46,6 +46,14 @@ public class ParameterValue implements Serializable {
         return value;
     }
 
+    /**
+     * Get the value for binding, the stream value of BLOB/CLOB type is bound as stream
+     * @return The binding value
+     */
+    public Object getBindValue() {
+        return (type == null) ? value : LobValue.of(value, type.getValue());
+    }
+
     public Integer getType() {
         if (type == null) {
             return null;
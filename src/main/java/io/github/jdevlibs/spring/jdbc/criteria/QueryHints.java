@@ -0,0 +1,60 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc.criteria;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.sql.ResultSet;
+
+/**
+ * Statement execution hints for one query call, override the shared JdbcTemplate settings.
+ * @author supot.jdev
+ * @version 1.0
+ */
+@Data
+public class QueryHints implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private Integer fetchSize;
+    private Integer maxRows;
+    /** Query timeout in seconds */
+    private Integer queryTimeout;
+    private boolean readOnly;
+    /** ResultSet.TYPE_FORWARD_ONLY, TYPE_SCROLL_INSENSITIVE or TYPE_SCROLL_SENSITIVE */
+    private Integer resultSetType;
+
+    public QueryHints() {
+        super();
+    }
+
+    public QueryHints(Integer fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    public static QueryHints fetchSize(int fetchSize) {
+        return new QueryHints(fetchSize);
+    }
+
+    public int getResultSetTypeOrDefault() {
+        return (resultSetType == null) ? ResultSet.TYPE_FORWARD_ONLY : resultSetType;
+    }
+
+    public boolean isEmpty() {
+        return fetchSize == null && maxRows == null && queryTimeout == null && !readOnly && resultSetType == null;
+    }
+}
@@ -0,0 +1,97 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc.enums;
+
+import java.util.Locale;
+
+/**
+ * Database dialect with the statement limits used to build bulk statements.
+ * @author supot.jdev
+ * @version 1.0
+ */
+public enum Dialects {
+    ORACLE(65535, 1, false),
+    MYSQL(65535, 1000, true),
+    MSSQL(2100, 1000, true),
+    POSTGRESQL(32767, 1000, true),
+    OTHER(2000, 1, false);
+
+    private final int maxParameters;
+    private final int maxRows;
+    private final boolean multiRowValues;
+
+    Dialects(int maxParameters, int maxRows, boolean multiRowValues) {
+        this.maxParameters = maxParameters;
+        this.maxRows = maxRows;
+        this.multiRowValues = multiRowValues;
+    }
+
+    /**
+     * Maximum bind parameters that a single statement can carry.
+     * @return The total bind parameters
+     */
+    public int getMaxParameters() {
+        return maxParameters;
+    }
+
+    /**
+     * Maximum rows of a multi-row VALUES statement.
+     * @return The total rows
+     */
+    public int getMaxRows() {
+        return maxRows;
+    }
+
+    public boolean isMultiRowValues() {
+        return multiRowValues;
+    }
+
+    /**
+     * Rows per statement for the column count, bounded by the parameter limit.
+     * @param columns Total columns of one row
+     * @return The total rows per statement (at least 1)
+     */
+    public int rowsPerStatement(int columns) {
+        if (!multiRowValues || columns <= 0) {
+            return 1;
+        }
+        return Math.max(1, Math.min(maxRows, (maxParameters - 1) / columns));
+    }
+
+    /**
+     * Resolve dialect from the JDBC database product name
+     * @param productName The value of DatabaseMetaData.getDatabaseProductName()
+     * @return The dialect, OTHER when cannot detect
+     */
+    public static Dialects of(String productName) {
+        if (productName == null) {
+            return OTHER;
+        }
+
+        String name = productName.toLowerCase(Locale.ROOT);
+        if (name.contains("oracle")) {
+            return ORACLE;
+        } else if (name.contains("mysql") || name.contains("mariadb")) {
+            return MYSQL;
+        } else if (name.contains("microsoft") || name.contains("sql server")) {
+            return MSSQL;
+        } else if (name.contains("postgres")) {
+            return POSTGRESQL;
+        }
+        return OTHER;
+    }
+}
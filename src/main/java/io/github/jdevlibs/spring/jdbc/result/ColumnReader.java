@@ -0,0 +1,162 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc.result;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Base64;
+
+/**
+ * Read the column value of current row as text, resolved once per column by the SQL type.
+ * The numbers and booleans are appended without boxing, the dates are ISO-8601 and the binaries are Base64.
+ * @author supot.jdev
+ * @version 1.0
+ */
+final class ColumnReader {
+    private final int index;
+    private final int kind;
+    private final boolean quoted;
+
+    private static final int INTEGRAL = 1;
+    private static final int FLOATING = 2;
+    private static final int DECIMAL = 3;
+    private static final int BOOLEAN = 4;
+    private static final int DATE = 5;
+    private static final int TIME = 6;
+    private static final int TIMESTAMP = 7;
+    private static final int BINARY = 8;
+    private static final int TEXT = 9;
+
+    private ColumnReader(int index, int kind) {
+        this.index = index;
+        this.kind = kind;
+        this.quoted = kind >= DATE;
+    }
+
+    static ColumnReader of(ResultSetMetaData metaData, int index) throws SQLException {
+        switch (metaData.getColumnType(index)) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                return new ColumnReader(index, INTEGRAL);
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return new ColumnReader(index, FLOATING);
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                return new ColumnReader(index, DECIMAL);
+            case Types.BIT:
+            case Types.BOOLEAN:
+                return new ColumnReader(index, BOOLEAN);
+            case Types.DATE:
+                return new ColumnReader(index, DATE);
+            case Types.TIME:
+                return new ColumnReader(index, TIME);
+            case Types.TIMESTAMP:
+                return new ColumnReader(index, TIMESTAMP);
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+            case Types.BLOB:
+                return new ColumnReader(index, BINARY);
+            default:
+                return new ColumnReader(index, TEXT);
+        }
+    }
+
+    /**
+     * Check the value is text (quoted in JSON), otherwise number or boolean
+     * @return true when text
+     */
+    boolean isQuoted() {
+        return quoted;
+    }
+
+    /**
+     * Append the value of current row to the buffer
+     * @param rs The ResultSet
+     * @param out The buffer
+     * @return false when the value is null (nothing appended)
+     * @throws SQLException When cannot read the value
+     */
+    boolean read(ResultSet rs, StringBuilder out) throws SQLException {
+        switch (kind) {
+            case INTEGRAL: {
+                long value = rs.getLong(index);
+                if (rs.wasNull()) {
+                    return false;
+                }
+                out.append(value);
+                return true;
+            }
+            case FLOATING: {
+                double value = rs.getDouble(index);
+                if (rs.wasNull() || Double.isNaN(value) || Double.isInfinite(value)) {
+                    return false;
+                }
+                out.append(value);
+                return true;
+            }
+            case DECIMAL: {
+                BigDecimal value = rs.getBigDecimal(index);
+                return value != null && append(out, value.toPlainString());
+            }
+            case BOOLEAN: {
+                boolean value = rs.getBoolean(index);
+                if (rs.wasNull()) {
+                    return false;
+                }
+                out.append(value);
+                return true;
+            }
+            case DATE: {
+                Date value = rs.getDate(index);
+                return value != null && append(out, value.toLocalDate().toString());
+            }
+            case TIME: {
+                Time value = rs.getTime(index);
+                return value != null && append(out, value.toLocalTime().toString());
+            }
+            case TIMESTAMP: {
+                Timestamp value = rs.getTimestamp(index);
+                return value != null && append(out, value.toLocalDateTime().toString());
+            }
+            case BINARY: {
+                byte[] value = rs.getBytes(index);
+                return value != null && append(out, Base64.getEncoder().encodeToString(value));
+            }
+            default:
+                return append(out, rs.getString(index));
+        }
+    }
+
+    private static boolean append(StringBuilder out, String value) {
+        if (value == null) {
+            return false;
+        }
+        out.append(value);
+        return true;
+    }
+}
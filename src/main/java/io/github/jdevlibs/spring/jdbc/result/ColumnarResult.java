@@ -0,0 +1,334 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc.result;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Column oriented query result, the numeric columns are kept in primitive arrays (int[], long[], double[]),
+ * the string columns are dictionary encoded and the null values are kept in a bitmap.
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class ColumnarResult {
+    private final List<Column> columns;
+    private final Map<String, Column> columnNames;
+    private int rowCount;
+
+    public ColumnarResult(List<Column> columns) {
+        this.columns = Collections.unmodifiableList(columns);
+        this.columnNames = new HashMap<>(columns.size() * 2);
+        for (Column col : columns) {
+            columnNames.putIfAbsent(col.getName().toUpperCase(Locale.ROOT), col);
+        }
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columns.size();
+    }
+
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Get the column by index
+     * @param index The column index (start with 0)
+     * @return The column
+     */
+    public Column getColumn(int index) {
+        return columns.get(index);
+    }
+
+    /**
+     * Get the column by name (case-insensitive)
+     * @param name The column label
+     * @return The column, null when not found
+     */
+    public Column getColumn(String name) {
+        return columnNames.get(name.toUpperCase(Locale.ROOT));
+    }
+
+    void nextRow() {
+        rowCount++;
+    }
+
+    void trim() {
+        for (Column col : columns) {
+            col.trim(rowCount);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnarResult [rows=" + rowCount + ", columns=" + columns + "]";
+    }
+
+    /**
+     * The storage type of the column
+     */
+    public enum ColumnTypes {
+        INT, LONG, DOUBLE, STRING, OBJECT
+    }
+
+    /**
+     * The column values
+     */
+    public static class Column {
+        private final String name;
+        private final ColumnTypes type;
+        private final int growSize;
+        private int size;
+        private long[] nulls = new long[0];
+        private int[] ints;
+        private long[] longs;
+        private double[] doubles;
+        private Object[] objects;
+        private List<String> dictionary;
+        private Map<String, Integer> dictionaryCodes;
+
+        Column(String name, ColumnTypes type, int growSize) {
+            this.name = name;
+            this.type = type;
+            this.growSize = Math.max(growSize, 16);
+            switch (type) {
+                case INT:
+                    ints = new int[0];
+                    break;
+                case LONG:
+                    longs = new long[0];
+                    break;
+                case DOUBLE:
+                    doubles = new double[0];
+                    break;
+                case STRING:
+                    ints = new int[0];
+                    dictionary = new ArrayList<>();
+                    dictionaryCodes = new HashMap<>();
+                    break;
+                default:
+                    objects = new Object[0];
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public ColumnTypes getType() {
+            return type;
+        }
+
+        public boolean isNull(int row) {
+            int word = row >>> 6;
+            return word < nulls.length && (nulls[word] & (1L << row)) != 0;
+        }
+
+        public int getInt(int row) {
+            switch (type) {
+                case INT:
+                    return ints[row];
+                case LONG:
+                    return (int) longs[row];
+                case DOUBLE:
+                    return (int) doubles[row];
+                default:
+                    throw new IllegalStateException("Column '" + name + "' is not numeric");
+            }
+        }
+
+        public long getLong(int row) {
+            switch (type) {
+                case INT:
+                    return ints[row];
+                case LONG:
+                    return longs[row];
+                case DOUBLE:
+                    return (long) doubles[row];
+                default:
+                    throw new IllegalStateException("Column '" + name + "' is not numeric");
+            }
+        }
+
+        public double getDouble(int row) {
+            switch (type) {
+                case INT:
+                    return ints[row];
+                case LONG:
+                    return longs[row];
+                case DOUBLE:
+                    return doubles[row];
+                default:
+                    throw new IllegalStateException("Column '" + name + "' is not numeric");
+            }
+        }
+
+        public String getString(int row) {
+            if (isNull(row)) {
+                return null;
+            }
+            if (type == ColumnTypes.STRING) {
+                return dictionary.get(ints[row]);
+            }
+            return String.valueOf(getObject(row));
+        }
+
+        public Object getObject(int row) {
+            if (isNull(row)) {
+                return null;
+            }
+            switch (type) {
+                case INT:
+                    return ints[row];
+                case LONG:
+                    return longs[row];
+                case DOUBLE:
+                    return doubles[row];
+                case STRING:
+                    return dictionary.get(ints[row]);
+                default:
+                    return objects[row];
+            }
+        }
+
+        /**
+         * Get the values of INT column (the dictionary codes of STRING column)
+         * @return The values, the length is the total rows
+         */
+        public int[] getIntValues() {
+            return ints;
+        }
+
+        public long[] getLongValues() {
+            return longs;
+        }
+
+        public double[] getDoubleValues() {
+            return doubles;
+        }
+
+        public Object[] getObjectValues() {
+            return objects;
+        }
+
+        /**
+         * Get the distinct values of STRING column, index by the dictionary code
+         * @return The dictionary values
+         */
+        public List<String> getDictionary() {
+            return dictionary == null ? Collections.emptyList() : Collections.unmodifiableList(dictionary);
+        }
+
+        void setNull() {
+            ensureCapacity();
+            int word = size >>> 6;
+            if (word >= nulls.length) {
+                nulls = Arrays.copyOf(nulls, Math.max(word + 1, nulls.length * 2));
+            }
+            nulls[word] |= (1L << size);
+            size++;
+        }
+
+        void addInt(int value) {
+            ensureCapacity();
+            ints[size++] = value;
+        }
+
+        void addLong(long value) {
+            ensureCapacity();
+            longs[size++] = value;
+        }
+
+        void addDouble(double value) {
+            ensureCapacity();
+            doubles[size++] = value;
+        }
+
+        void addString(String value) {
+            ensureCapacity();
+            Integer code = dictionaryCodes.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.add(value);
+                dictionaryCodes.put(value, code);
+            }
+            ints[size++] = code;
+        }
+
+        void addObject(Object value) {
+            ensureCapacity();
+            objects[size++] = value;
+        }
+
+        private void ensureCapacity() {
+            int capacity = capacity();
+            if (size < capacity) {
+                return;
+            }
+
+            int newCapacity = capacity + Math.max(growSize, capacity >> 1);
+            if (ints != null) {
+                ints = Arrays.copyOf(ints, newCapacity);
+            } else if (longs != null) {
+                longs = Arrays.copyOf(longs, newCapacity);
+            } else if (doubles != null) {
+                doubles = Arrays.copyOf(doubles, newCapacity);
+            } else {
+                objects = Arrays.copyOf(objects, newCapacity);
+            }
+        }
+
+        private int capacity() {
+            if (ints != null) {
+                return ints.length;
+            } else if (longs != null) {
+                return longs.length;
+            } else if (doubles != null) {
+                return doubles.length;
+            }
+            return objects.length;
+        }
+
+        private void trim(int rows) {
+            if (ints != null) {
+                ints = Arrays.copyOf(ints, rows);
+            } else if (longs != null) {
+                longs = Arrays.copyOf(longs, rows);
+            } else if (doubles != null) {
+                doubles = Arrays.copyOf(doubles, rows);
+            } else {
+                objects = Arrays.copyOf(objects, rows);
+            }
+            dictionaryCodes = null;
+        }
+
+        @Override
+        public String toString() {
+            return "[name=" + name + ", type=" + type + "]";
+        }
+    }
+}
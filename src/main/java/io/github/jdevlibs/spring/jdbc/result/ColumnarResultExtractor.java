@@ -0,0 +1,164 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc.result;
+
+import io.github.jdevlibs.spring.jdbc.result.ColumnarResult.Column;
+import io.github.jdevlibs.spring.jdbc.result.ColumnarResult.ColumnTypes;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.support.JdbcUtils;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Extract the query result to ColumnarResult, the values are read by the primitive getters of ResultSet.
+ * The DATE/TIMESTAMP columns are kept as epoch milliseconds, the decimal columns as double.
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class ColumnarResultExtractor implements ResultSetExtractor<ColumnarResult> {
+    private static final int DEFAULT_GROW_SIZE = 1024;
+
+    @Override
+    public ColumnarResult extractData(ResultSet rs) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int total = metaData.getColumnCount();
+        int growSize = Math.max(rs.getFetchSize(), DEFAULT_GROW_SIZE);
+
+        List<Column> columns = new ArrayList<>(total);
+        ColumnTypes[] types = new ColumnTypes[total];
+        int[] sqlTypes = new int[total];
+        for (int i = 1; i <= total; i++) {
+            sqlTypes[i - 1] = metaData.getColumnType(i);
+            types[i - 1] = toColumnType(metaData, i);
+            columns.add(new Column(JdbcUtils.lookupColumnName(metaData, i), types[i - 1], growSize));
+        }
+
+        ColumnarResult result = new ColumnarResult(columns);
+        while (rs.next()) {
+            for (int i = 0; i < total; i++) {
+                readValue(rs, i + 1, types[i], sqlTypes[i], columns.get(i));
+            }
+            result.nextRow();
+        }
+        result.trim();
+
+        return result;
+    }
+
+    private void readValue(ResultSet rs, int index, ColumnTypes type, int sqlType, Column col) throws SQLException {
+        switch (type) {
+            case INT: {
+                int value = rs.getInt(index);
+                if (rs.wasNull()) {
+                    col.setNull();
+                } else {
+                    col.addInt(value);
+                }
+                break;
+            }
+            case LONG: {
+                long value;
+                if (sqlType == Types.DATE || sqlType == Types.TIMESTAMP) {
+                    Timestamp time = rs.getTimestamp(index);
+                    value = (time == null) ? 0L : time.getTime();
+                } else {
+                    value = rs.getLong(index);
+                }
+                if (rs.wasNull()) {
+                    col.setNull();
+                } else {
+                    col.addLong(value);
+                }
+                break;
+            }
+            case DOUBLE: {
+                double value = rs.getDouble(index);
+                if (rs.wasNull()) {
+                    col.setNull();
+                } else {
+                    col.addDouble(value);
+                }
+                break;
+            }
+            case STRING: {
+                String value = rs.getString(index);
+                if (value == null) {
+                    col.setNull();
+                } else {
+                    col.addString(value);
+                }
+                break;
+            }
+            default: {
+                Object value = JdbcUtils.getResultSetValue(rs, index);
+                if (value == null) {
+                    col.setNull();
+                } else {
+                    col.addObject(value);
+                }
+            }
+        }
+    }
+
+    private static ColumnTypes toColumnType(ResultSetMetaData metaData, int index) throws SQLException {
+        switch (metaData.getColumnType(index)) {
+            case Types.BIT:
+            case Types.BOOLEAN:
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+                return ColumnTypes.INT;
+            case Types.BIGINT:
+            case Types.DATE:
+            case Types.TIMESTAMP:
+                return ColumnTypes.LONG;
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return ColumnTypes.DOUBLE;
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                return toNumericType(metaData.getPrecision(index), metaData.getScale(index));
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.LONGNVARCHAR:
+                return ColumnTypes.STRING;
+            default:
+                return ColumnTypes.OBJECT;
+        }
+    }
+
+    private static ColumnTypes toNumericType(int precision, int scale) {
+        if (scale != 0 || precision <= 0) {
+            return ColumnTypes.DOUBLE;
+        } else if (precision <= 9) {
+            return ColumnTypes.INT;
+        } else if (precision <= 18) {
+            return ColumnTypes.LONG;
+        }
+        return ColumnTypes.DOUBLE;
+    }
+}
@@ -0,0 +1,101 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc.result;
+
+import java.io.Writer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Export the query result as CSV (RFC 4180), the value is quoted when it contains the delimiter,
+ * quote or line break. The null value is an empty field.
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class CsvExportExtractor extends ExportExtractor {
+    private char delimiter = ',';
+    private boolean header = true;
+
+    public CsvExportExtractor(Writer out) {
+        super(out);
+    }
+
+    public void setDelimiter(char delimiter) {
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Write the column names as the first line (default true)
+     * @param header true for write header
+     */
+    public void setHeader(boolean header) {
+        this.header = header;
+    }
+
+    @Override
+    boolean writeHeader(String[] names, StringBuilder line) {
+        if (!header) {
+            return false;
+        }
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) {
+                line.append(delimiter);
+            }
+            appendField(line, names[i]);
+        }
+        return true;
+    }
+
+    @Override
+    void writeRow(ResultSet rs, String[] names, ColumnReader[] readers, StringBuilder line) throws SQLException {
+        for (int i = 0; i < readers.length; i++) {
+            if (i > 0) {
+                line.append(delimiter);
+            }
+            StringBuilder value = readValue(rs, readers[i]);
+            if (value != null) {
+                if (readers[i].isQuoted()) {
+                    appendField(line, value);
+                } else {
+                    line.append(value);
+                }
+            }
+        }
+    }
+
+    private void appendField(StringBuilder line, CharSequence value) {
+        boolean quote = false;
+        for (int i = 0, len = value.length(); i < len && !quote; i++) {
+            char ch = value.charAt(i);
+            quote = ch == delimiter || ch == '"' || ch == '\n' || ch == '\r';
+        }
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+
+        line.append('"');
+        for (int i = 0, len = value.length(); i < len; i++) {
+            char ch = value.charAt(i);
+            if (ch == '"') {
+                line.append('"');
+            }
+            line.append(ch);
+        }
+        line.append('"');
+    }
+}
@@ -0,0 +1,131 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc.result;
+
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.support.JdbcUtils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * Write the query result straight from the ResultSet to the Writer (no bean per row and no list).
+ * The column readers are resolved once from ResultSetMetaData and one line buffer is reused for all rows.
+ * The writer is flushed but not closed.
+ * @author supot.jdev
+ * @version 1.0
+ */
+public abstract class ExportExtractor implements ResultSetExtractor<Long> {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Writer out;
+    private final StringBuilder line = new StringBuilder(512);
+    private final StringBuilder value = new StringBuilder(128);
+    private char[] chars = new char[1024];
+
+    protected ExportExtractor(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Create the buffered UTF-8 writer of the output stream
+     * @param out The output stream
+     * @return The writer (flush for write to the output stream)
+     */
+    public static Writer writer(OutputStream out) {
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    @Override
+    public Long extractData(ResultSet rs) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int total = metaData.getColumnCount();
+        String[] names = new String[total];
+        ColumnReader[] readers = new ColumnReader[total];
+        for (int i = 0; i < total; i++) {
+            names[i] = JdbcUtils.lookupColumnName(metaData, i + 1);
+            readers[i] = ColumnReader.of(metaData, i + 1);
+        }
+
+        try {
+            line.setLength(0);
+            if (writeHeader(names, line)) {
+                writeLine();
+            }
+
+            long rows = 0;
+            while (rs.next()) {
+                line.setLength(0);
+                writeRow(rs, names, readers, line);
+                writeLine();
+                rows++;
+            }
+            out.flush();
+            return rows;
+        } catch (IOException ex) {
+            throw new SQLException("Cannot write export row", ex);
+        }
+    }
+
+    /**
+     * Append the header line (without line separator)
+     * @param names The column names
+     * @param line The line buffer
+     * @return false when no header
+     */
+    abstract boolean writeHeader(String[] names, StringBuilder line);
+
+    /**
+     * Append the current row (without line separator)
+     * @param rs The ResultSet
+     * @param names The column names
+     * @param readers The column readers
+     * @param line The line buffer
+     * @throws SQLException When cannot read the value
+     */
+    abstract void writeRow(ResultSet rs, String[] names, ColumnReader[] readers, StringBuilder line)
+            throws SQLException;
+
+    /**
+     * Read the column value to the reused value buffer
+     * @param rs The ResultSet
+     * @param reader The column reader
+     * @return The value buffer, null when the value is null
+     * @throws SQLException When cannot read the value
+     */
+    StringBuilder readValue(ResultSet rs, ColumnReader reader) throws SQLException {
+        value.setLength(0);
+        return reader.read(rs, value) ? value : null;
+    }
+
+    private void writeLine() throws IOException {
+        line.append('\n');
+        int len = line.length();
+        if (chars.length < len) {
+            chars = new char[Math.max(len, chars.length * 2)];
+        }
+        line.getChars(0, len, chars, 0);
+        out.write(chars, 0, len);
+    }
+}
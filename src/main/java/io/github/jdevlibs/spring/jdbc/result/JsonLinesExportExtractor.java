@@ -0,0 +1,101 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc.result;
+
+import java.io.Writer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Export the query result as JSON Lines, one JSON object per row with the column names as keys.
+ * The numbers and booleans are JSON values, the other values are JSON strings and the null value is null.
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class JsonLinesExportExtractor extends ExportExtractor {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private String[] keys;
+
+    public JsonLinesExportExtractor(Writer out) {
+        super(out);
+    }
+
+    @Override
+    boolean writeHeader(String[] names, StringBuilder line) {
+        keys = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            StringBuilder key = new StringBuilder(names[i].length() + 4);
+            key.append(i == 0 ? "{" : ",");
+            appendString(key, names[i]);
+            key.append(':');
+            keys[i] = key.toString();
+        }
+        return false;
+    }
+
+    @Override
+    void writeRow(ResultSet rs, String[] names, ColumnReader[] readers, StringBuilder line) throws SQLException {
+        if (readers.length == 0) {
+            line.append('{');
+        }
+        for (int i = 0; i < readers.length; i++) {
+            line.append(keys[i]);
+            StringBuilder value = readValue(rs, readers[i]);
+            if (value == null) {
+                line.append("null");
+            } else if (readers[i].isQuoted()) {
+                appendString(line, value);
+            } else {
+                line.append(value);
+            }
+        }
+        line.append('}');
+    }
+
+    private static void appendString(StringBuilder line, CharSequence value) {
+        line.append('"');
+        for (int i = 0, len = value.length(); i < len; i++) {
+            char ch = value.charAt(i);
+            switch (ch) {
+                case '"':
+                    line.append("\\\"");
+                    break;
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                default:
+                    if (ch < 0x20 || ch == '\u2028' || ch == '\u2029') {
+                        line.append("\\u").append(HEX[(ch >> 12) & 0xF]).append(HEX[(ch >> 8) & 0xF])
+                                .append(HEX[(ch >> 4) & 0xF]).append(HEX[ch & 0xF]);
+                    } else {
+                        line.append(ch);
+                    }
+            }
+        }
+        line.append('"');
+    }
+}
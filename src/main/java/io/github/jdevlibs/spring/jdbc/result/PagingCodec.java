@@ -0,0 +1,793 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc.result;
+
+import io.github.jdevlibs.spring.BeanColumns;
+import io.github.jdevlibs.spring.jdbc.criteria.Criteria;
+import io.github.jdevlibs.spring.jdbc.criteria.Paging;
+import io.github.jdevlibs.spring.jdbc.criteria.QueryHints;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact binary codec of Paging and the mapped result list of a Java Bean class (e.g. for cache or remote copy).
+ * The format is driven by the class schema (BeanColumns, the readable and writable simple properties): no class
+ * or property name per item, one null bitmap per item, varint numbers and one string dictionary per message.
+ * The properties are read and written through the cached MethodHandles.
+ * The supported property types are the primitives and the wrappers, String, enum, BigDecimal, BigInteger,
+ * java.util.Date, java.sql.Date, Time, Timestamp, LocalDate, LocalTime, LocalDateTime, OffsetDateTime,
+ * ZonedDateTime, Instant, URI, URL and Locale, the class of the other property types is rejected
+ * (no Java serialization of the decoded input).
+ * The schema hash is written to detect the incompatible class between nodes.
+ * <pre>
+ * PagingCodec&lt;Customer&gt; codec = PagingCodec.of(Customer.class);
+ * byte[] bytes = codec.encode(paging);
+ * Paging&lt;Customer&gt; copy = codec.decode(bytes);
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public final class PagingCodec<T> {
+    private static final Map<Class<?>, PagingCodec<?>> CACHE = new ConcurrentHashMap<>();
+    private static final byte VERSION = 2;
+    private static final byte LIST = 0;
+    private static final byte PAGING = 1;
+
+    private final Class<T> beanClass;
+    private final MethodHandle constructor;
+    private final BeanColumns.Column[] columns;
+    private final Kind[] kinds;
+    private final int schemaHash;
+
+    private PagingCodec(Class<T> beanClass) {
+        this.beanClass = beanClass;
+        this.constructor = createConstructor(beanClass);
+
+        List<BeanColumns.Column> writable = new ArrayList<>();
+        for (BeanColumns.Column col : BeanColumns.of(beanClass).getColumns()) {
+            if (col.isWritable()) {
+                writable.add(col);
+            }
+        }
+        this.columns = writable.toArray(new BeanColumns.Column[0]);
+        this.kinds = new Kind[columns.length];
+        StringBuilder schema = new StringBuilder(beanClass.getName());
+        for (int i = 0; i < columns.length; i++) {
+            kinds[i] = Kind.of(columns[i].getType());
+            if (kinds[i] == null) {
+                throw new IllegalArgumentException("Unsupported type " + columns[i].getType().getName()
+                        + " of property " + beanClass.getName() + "." + columns[i].getName());
+            }
+            schema.append(';').append(columns[i].getName()).append(':').append(columns[i].getType().getName());
+        }
+        this.schemaHash = schema.toString().hashCode();
+    }
+
+    /**
+     * Get the codec of the class (cached)
+     * @param clazz The Java Bean class (public no-argument constructor)
+     * @return The codec
+     * @throws IllegalArgumentException When the type of a property is not supported
+     * @param <T> Generic bean class
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PagingCodec<T> of(Class<T> clazz) {
+        return (PagingCodec<T>) CACHE.computeIfAbsent(clazz, PagingCodec::new);
+    }
+
+    public Class<T> getBeanClass() {
+        return beanClass;
+    }
+
+    /**
+     * Encode the paging (items, totals and criteria)
+     * @param paging The paging
+     * @return The encoded bytes
+     */
+    public byte[] encode(Paging<T> paging) {
+        MessageWriter out = new MessageWriter();
+        writeHeader(out, PAGING);
+        out.writeVarLong(paging.getTotalElements());
+        out.writeVarLong(paging.getTotalPages());
+        out.writeByte((paging.isFirst() ? 1 : 0) | (paging.isLast() ? 2 : 0));
+        writeCriteria(out, paging.getCriteria());
+        writeItems(out, paging.getItems());
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode the paging that encoded by encode(Paging)
+     * @param bytes The encoded bytes
+     * @return The paging
+     */
+    public Paging<T> decode(byte[] bytes) {
+        MessageReader in = new MessageReader(bytes);
+        readHeader(in, PAGING);
+        Paging<T> paging = new Paging<>();
+        paging.setTotalElements(in.readVarLong());
+        paging.setTotalPages((int) in.readVarLong());
+        int flags = in.buffer.get();
+        paging.setFirst((flags & 1) != 0);
+        paging.setLast((flags & 2) != 0);
+        paging.setCriteria(readCriteria(in));
+        paging.setItems(readItems(in));
+        return paging;
+    }
+
+    /**
+     * Encode the result list
+     * @param items The items
+     * @return The encoded bytes
+     */
+    public byte[] encodeList(List<T> items) {
+        MessageWriter out = new MessageWriter();
+        writeHeader(out, LIST);
+        writeItems(out, items);
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode the result list that encoded by encodeList(List)
+     * @param bytes The encoded bytes
+     * @return The items, null when the encoded list is null
+     */
+    public List<T> decodeList(byte[] bytes) {
+        MessageReader in = new MessageReader(bytes);
+        readHeader(in, LIST);
+        return readItems(in);
+    }
+
+    private void writeHeader(MessageWriter out, byte type) {
+        out.writeByte(VERSION);
+        out.writeByte(type);
+        out.writeVarLong(schemaHash & 0xFFFFFFFFL);
+    }
+
+    private void readHeader(MessageReader in, byte type) {
+        byte version = in.buffer.get();
+        byte actual = in.buffer.get();
+        if (version != VERSION || actual != type) {
+            throw new IllegalStateException("Invalid format, version " + version + " type " + actual);
+        }
+        if ((int) in.readVarLong() != schemaHash) {
+            throw new IllegalStateException("Incompatible schema of " + beanClass.getName());
+        }
+    }
+
+    private void writeItems(MessageWriter out, List<T> items) {
+        if (items == null) {
+            out.writeVarLong(0);
+            return;
+        }
+        out.writeVarLong(items.size() + 1L);
+
+        byte[] nulls = new byte[(columns.length + 7) >>> 3];
+        Object[] values = new Object[columns.length];
+        for (T item : items) {
+            if (item == null) {
+                throw new IllegalArgumentException("Cannot encode null item");
+            }
+            Arrays.fill(nulls, (byte) 0);
+            for (int i = 0; i < columns.length; i++) {
+                values[i] = columns[i].getValue(item);
+                if (values[i] == null) {
+                    nulls[i >>> 3] |= (byte) (1 << (i & 7));
+                }
+            }
+            for (byte b : nulls) {
+                out.writeByte(b);
+            }
+            for (int i = 0; i < columns.length; i++) {
+                if (values[i] != null) {
+                    kinds[i].write(out, values[i]);
+                }
+            }
+        }
+    }
+
+    private List<T> readItems(MessageReader in) {
+        long total = in.readVarLong();
+        if (total == 0) {
+            return null;
+        }
+
+        int size = (int) (total - 1);
+        List<T> items = new ArrayList<>(size);
+        byte[] nulls = new byte[(columns.length + 7) >>> 3];
+        for (int row = 0; row < size; row++) {
+            in.buffer.get(nulls);
+            T item = newInstance();
+            for (int i = 0; i < columns.length; i++) {
+                if ((nulls[i >>> 3] & (1 << (i & 7))) == 0) {
+                    columns[i].setValue(item, kinds[i].read(in, columns[i].getType()));
+                }
+            }
+            items.add(item);
+        }
+        return items;
+    }
+
+    private static void writeCriteria(MessageWriter out, Criteria criteria) {
+        if (criteria == null) {
+            out.writeByte(0);
+            return;
+        }
+        out.writeByte(1 | (criteria.isSkipRowCount() ? 2 : 0) | (criteria.isExistsOrderBy() ? 4 : 0));
+        out.writeNullableLong(criteria.getPage());
+        out.writeNullableLong(criteria.getSize());
+        out.writeNullableLong(criteria.getTotalElement());
+        if (criteria.getSorts() == null) {
+            out.writeVarLong(0);
+        } else {
+            out.writeVarLong(criteria.getSorts().size() + 1L);
+            for (Map.Entry<String, String> sort : criteria.getSorts().entrySet()) {
+                out.writeString(sort.getKey());
+                out.writeString(sort.getValue());
+            }
+        }
+
+        QueryHints hints = criteria.getHints();
+        if (hints == null) {
+            out.writeByte(0);
+        } else {
+            out.writeByte(hints.isReadOnly() ? 3 : 1);
+            out.writeNullableLong(hints.getFetchSize());
+            out.writeNullableLong(hints.getMaxRows());
+            out.writeNullableLong(hints.getQueryTimeout());
+            out.writeNullableLong(hints.getResultSetType());
+        }
+    }
+
+    private static Criteria readCriteria(MessageReader in) {
+        int flags = in.buffer.get();
+        if (flags == 0) {
+            return null;
+        }
+        Criteria criteria = new Criteria();
+        criteria.setSkipRowCount((flags & 2) != 0);
+        criteria.setExistsOrderBy((flags & 4) != 0);
+        criteria.setPage(toInteger(in.readNullableLong()));
+        criteria.setSize(toInteger(in.readNullableLong()));
+        criteria.setTotalElement(in.readNullableLong());
+        long sorts = in.readVarLong();
+        if (sorts > 0) {
+            criteria.setSorts(new LinkedHashMap<>());
+            for (long i = 1; i < sorts; i++) {
+                criteria.getSorts().put(in.readString(), in.readString());
+            }
+        }
+
+        int hintFlags = in.buffer.get();
+        if (hintFlags != 0) {
+            QueryHints hints = new QueryHints();
+            hints.setReadOnly((hintFlags & 2) != 0);
+            hints.setFetchSize(toInteger(in.readNullableLong()));
+            hints.setMaxRows(toInteger(in.readNullableLong()));
+            hints.setQueryTimeout(toInteger(in.readNullableLong()));
+            hints.setResultSetType(toInteger(in.readNullableLong()));
+            criteria.setHints(hints);
+        }
+        return criteria;
+    }
+
+    private static Integer toInteger(Long value) {
+        return (value == null) ? null : value.intValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private T newInstance() {
+        try {
+            return (T) (Object) constructor.invokeExact();
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalStateException("Cannot instantiate " + beanClass.getName(), ex);
+        }
+    }
+
+    private static MethodHandle createConstructor(Class<?> clazz) {
+        try {
+            Constructor<?> ctor = clazz.getDeclaredConstructor();
+            ctor.setAccessible(true);
+            return MethodHandles.lookup().unreflectConstructor(ctor).asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException | RuntimeException ex) {
+            throw new IllegalArgumentException("No accessible no-argument constructor of " + clazz.getName(), ex);
+        }
+    }
+
+    /**
+     * The encoding of the property type, resolved once per property
+     */
+    private enum Kind {
+        BOOLEAN {
+            @Override
+            void write(MessageWriter out, Object value) {
+                out.writeByte((Boolean) value ? 1 : 0);
+            }
+
+            @Override
+            Object read(MessageReader in, Class<?> type) {
+                return in.buffer.get() != 0;
+            }
+        },
+        BYTE {
+            @Override
+            void write(MessageWriter out, Object value) {
+                out.writeByte((Byte) value);
+            }
+
+            @Override
+            Object read(MessageReader in, Class<?> type) {
+                return in.buffer.get();
+            }
+        },
+        SHORT {
+            @Override
+            void write(MessageWriter out, Object value) {
+                out.writeVarLong(RowCodec.zigZag((Short) value));
+            }
+
+            @Override
+            Object read(MessageReader in, Class<?> type) {
+                return (short) RowCodec.unZigZag(in.readVarLong());
+            }
+        },
+        INT {
+            @Override
+            void write(MessageWriter out, Object value) {
+                out.writeVarLong(RowCodec.zigZag((Integer) value));
+            }
+
+            @Override
+            Object read(MessageReader in, Class<?> type) {
+                return (int) RowCodec.unZigZag(in.readVarLong());
+            }
+        },
+        LONG {
+            @Override
+            void write(MessageWriter out, Object value) {
+                out.writeVarLong(RowCodec.zigZag((Long) value));
+            }
+
+            @Override
+            Object read(MessageReader in, Class<?> type) {
+                return RowCodec.unZigZag(in.readVarLong());
+            }
+        },
+        FLOAT {
+            @Override
+            void write(MessageWriter out, Object value) {
+                out.writeVarLong(Float.floatToRawIntBits((Float) value) & 0xFFFFFFFFL);
+            }
+
+            @Override
+            Object read(MessageReader in, Class<?> type) {
+                return Float.intBitsToFloat((int) in.readVarLong());
+            }
+        },
+        DOUBLE {
+            @Override
+            void write(MessageWriter out, Object value) {
+                out.writeFixedLong(Double.doubleToRawLongBits((Double) value));
+            }
+
+            @Override
+            Object read(MessageReader in, Class<?> type) {
+                return Double.longBitsToDouble(in.buffer.getLong());
+            }
+        },
+        STRING {
+            @Override
+            void write(MessageWriter out, Object value) {
+                out.writeString(value.toString());
+            }
+
+            @Override
+            Object read(MessageReader in, Class<?> type) {
+                return in.readString();
+            }
+        },
+        ENUM {
+            @Override
+            void write(MessageWriter out, Object value) {
+                out.writeString(value.toString());
+            }
+
+            @Override
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            Object read(MessageReader in, Class<?> type) {
+                return Enum.valueOf((Class<? extends Enum>) type, in.readString());
+            }
+        },
+        BIG_DECIMAL {
+            @Override
+            void write(MessageWriter out, Object value) {
+                BigDecimal decimal = (BigDecimal) value;
+                out.writeVarLong(RowCodec.zigZag(decimal.scale()));
+                out.writeBytes(decimal.unscaledValue().toByteArray());
+            }
+
+            @Override
+            Object read(MessageReader in, Class<?> type) {
+                int scale = (int) RowCodec.unZigZag(in.readVarLong());
+                return new BigDecimal(new BigInteger(RowCodec.readBytes(in.buffer)), scale);
+            }
+        },
+        LOCAL_DATE {
+            @Override
+            void write(MessageWriter out, Object value) {
+                out.writeVarLong(RowCodec.zigZag(((LocalDate) value).toEpochDay()));
+            }
+
+            @Override
+            Object read(MessageReader in, Class<?> type) {
+                return LocalDate.ofEpochDay(RowCodec.unZigZag(in.readVarLong()));
+            }
+        },
+        LOCAL_DATE_TIME {
+            @Override
+            void write(MessageWriter out, Object value) {
+                LocalDateTime time = (LocalDateTime) value;
+                out.writeVarLong(RowCodec.zigZag(time.toEpochSecond(ZoneOffset.UTC)));
+                out.writeVarLong(time.getNano());
+            }
+
+            @Override
+            Object read(MessageReader in, Class<?> type) {
+                long seconds = RowCodec.unZigZag(in.readVarLong());
+                return LocalDateTime.ofEpochSecond(seconds, (int) in.readVarLong(), ZoneOffset.UTC);
+            }
+        },
+        INSTANT {
+            @Override
+            void write(MessageWriter out, Object value) {
+                Instant time = (Instant) value;
+                out.writeVarLong(RowCodec.zigZag(time.getEpochSecond()));
+                out.writeVarLong(time.getNano());
+            }
+
+            @Override
+            Object read(MessageReader in, Class<?> type) {
+                long seconds = RowCodec.unZigZag(in.readVarLong());
+                return Instant.ofEpochSecond(seconds, in.readVarLong());
+            }
+        },
+        CHAR {
+            @Override
+            void write(MessageWriter out, Object value) {
+                out.writeVarLong((Character) value);
+            }
+
+            @Override
+            Object read(MessageReader in, Class<?> type) {
+                return (char) in.readVarLong();
+            }
+        },
+        BIG_INTEGER {
+            @Override
+            void write(MessageWriter out, Object value) {
+                out.writeBytes(((BigInteger) value).toByteArray());
+            }
+
+            @Override
+            Object read(MessageReader in, Class<?> type) {
+                return new BigInteger(RowCodec.readBytes(in.buffer));
+            }
+        },
+        DATE {
+            @Override
+            void write(MessageWriter out, Object value) {
+                out.writeVarLong(RowCodec.zigZag(((Date) value).getTime()));
+            }
+
+            @Override
+            Object read(MessageReader in, Class<?> type) {
+                return new Date(RowCodec.unZigZag(in.readVarLong()));
+            }
+        },
+        SQL_DATE {
+            @Override
+            void write(MessageWriter out, Object value) {
+                out.writeVarLong(RowCodec.zigZag(((Date) value).getTime()));
+            }
+
+            @Override
+            Object read(MessageReader in, Class<?> type) {
+                return new java.sql.Date(RowCodec.unZigZag(in.readVarLong()));
+            }
+        },
+        SQL_TIME {
+            @Override
+            void write(MessageWriter out, Object value) {
+                out.writeVarLong(RowCodec.zigZag(((Date) value).getTime()));
+            }
+
+            @Override
+            Object read(MessageReader in, Class<?> type) {
+                return new Time(RowCodec.unZigZag(in.readVarLong()));
+            }
+        },
+        TIMESTAMP {
+            @Override
+            void write(MessageWriter out, Object value) {
+                Timestamp time = (Timestamp) value;
+                out.writeVarLong(RowCodec.zigZag(Math.floorDiv(time.getTime(), 1000L)));
+                out.writeVarLong(time.getNanos());
+            }
+
+            @Override
+            Object read(MessageReader in, Class<?> type) {
+                Timestamp time = new Timestamp(RowCodec.unZigZag(in.readVarLong()) * 1000L);
+                time.setNanos((int) in.readVarLong());
+                return time;
+            }
+        },
+        LOCAL_TIME {
+            @Override
+            void write(MessageWriter out, Object value) {
+                out.writeVarLong(((LocalTime) value).toNanoOfDay());
+            }
+
+            @Override
+            Object read(MessageReader in, Class<?> type) {
+                return LocalTime.ofNanoOfDay(in.readVarLong());
+            }
+        },
+        OFFSET_DATE_TIME {
+            @Override
+            void write(MessageWriter out, Object value) {
+                OffsetDateTime time = (OffsetDateTime) value;
+                out.writeVarLong(RowCodec.zigZag(time.toEpochSecond()));
+                out.writeVarLong(time.getNano());
+                out.writeVarLong(RowCodec.zigZag(time.getOffset().getTotalSeconds()));
+            }
+
+            @Override
+            Object read(MessageReader in, Class<?> type) {
+                long seconds = RowCodec.unZigZag(in.readVarLong());
+                long nanos = in.readVarLong();
+                ZoneOffset offset = ZoneOffset.ofTotalSeconds((int) RowCodec.unZigZag(in.readVarLong()));
+                return OffsetDateTime.ofInstant(Instant.ofEpochSecond(seconds, nanos), offset);
+            }
+        },
+        ZONED_DATE_TIME {
+            @Override
+            void write(MessageWriter out, Object value) {
+                ZonedDateTime time = (ZonedDateTime) value;
+                out.writeVarLong(RowCodec.zigZag(time.toEpochSecond()));
+                out.writeVarLong(time.getNano());
+                out.writeString(time.getZone().getId());
+            }
+
+            @Override
+            Object read(MessageReader in, Class<?> type) {
+                long seconds = RowCodec.unZigZag(in.readVarLong());
+                long nanos = in.readVarLong();
+                return ZonedDateTime.ofInstant(Instant.ofEpochSecond(seconds, nanos), ZoneId.of(in.readString()));
+            }
+        },
+        URI_VALUE {
+            @Override
+            void write(MessageWriter out, Object value) {
+                out.writeString(value.toString());
+            }
+
+            @Override
+            Object read(MessageReader in, Class<?> type) {
+                return URI.create(in.readString());
+            }
+        },
+        URL_VALUE {
+            @Override
+            void write(MessageWriter out, Object value) {
+                out.writeString(value.toString());
+            }
+
+            @Override
+            Object read(MessageReader in, Class<?> type) {
+                String value = in.readString();
+                try {
+                    return new URL(value);
+                } catch (MalformedURLException ex) {
+                    throw new IllegalStateException("Invalid URL " + value, ex);
+                }
+            }
+        },
+        LOCALE {
+            @Override
+            void write(MessageWriter out, Object value) {
+                out.writeString(((Locale) value).toLanguageTag());
+            }
+
+            @Override
+            Object read(MessageReader in, Class<?> type) {
+                return Locale.forLanguageTag(in.readString());
+            }
+        };
+
+        abstract void write(MessageWriter out, Object value);
+
+        abstract Object read(MessageReader in, Class<?> type);
+
+        static Kind of(Class<?> type) {
+            if (type == boolean.class || type == Boolean.class) {
+                return BOOLEAN;
+            } else if (type == byte.class || type == Byte.class) {
+                return BYTE;
+            } else if (type == short.class || type == Short.class) {
+                return SHORT;
+            } else if (type == int.class || type == Integer.class) {
+                return INT;
+            } else if (type == long.class || type == Long.class) {
+                return LONG;
+            } else if (type == float.class || type == Float.class) {
+                return FLOAT;
+            } else if (type == double.class || type == Double.class) {
+                return DOUBLE;
+            } else if (type == String.class) {
+                return STRING;
+            } else if (type.isEnum()) {
+                return ENUM;
+            } else if (type == BigDecimal.class) {
+                return BIG_DECIMAL;
+            } else if (type == LocalDate.class) {
+                return LOCAL_DATE;
+            } else if (type == LocalDateTime.class) {
+                return LOCAL_DATE_TIME;
+            } else if (type == Instant.class) {
+                return INSTANT;
+            } else if (type == char.class || type == Character.class) {
+                return CHAR;
+            } else if (type == BigInteger.class) {
+                return BIG_INTEGER;
+            } else if (type == Date.class) {
+                return DATE;
+            } else if (type == java.sql.Date.class) {
+                return SQL_DATE;
+            } else if (type == Time.class) {
+                return SQL_TIME;
+            } else if (type == Timestamp.class) {
+                return TIMESTAMP;
+            } else if (type == LocalTime.class) {
+                return LOCAL_TIME;
+            } else if (type == OffsetDateTime.class) {
+                return OFFSET_DATE_TIME;
+            } else if (type == ZonedDateTime.class) {
+                return ZONED_DATE_TIME;
+            } else if (type == URI.class) {
+                return URI_VALUE;
+            } else if (type == URL.class) {
+                return URL_VALUE;
+            } else if (type == Locale.class) {
+                return LOCALE;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The message writer with the string dictionary (the repeated string is written as index)
+     */
+    private static final class MessageWriter {
+        private final RowCodec codec = new RowCodec();
+        private final Map<String, Integer> dictionary = new HashMap<>();
+
+        private void writeByte(int value) {
+            codec.writeByte(value);
+        }
+
+        private void writeVarLong(long value) {
+            codec.writeVarLong(value);
+        }
+
+        private void writeFixedLong(long value) {
+            codec.writeFixedLong(value);
+        }
+
+        private void writeBytes(byte[] value) {
+            codec.writeBytes(value);
+        }
+
+        /**
+         * Write the string as 0 (null), 1 and UTF-8 bytes (first occurrence) or the dictionary index + 2
+         */
+        private void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            Integer index = dictionary.get(value);
+            if (index != null) {
+                writeVarLong(index + 2L);
+                return;
+            }
+            dictionary.put(value, dictionary.size());
+            writeVarLong(1);
+            writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void writeNullableLong(Number value) {
+            writeVarLong((value == null) ? 0 : RowCodec.zigZag(value.longValue()) + 1);
+        }
+
+        private byte[] toByteArray() {
+            return codec.toByteArray();
+        }
+    }
+
+    /**
+     * The message reader with the string dictionary
+     */
+    private static final class MessageReader {
+        private final ByteBuffer buffer;
+        private final List<String> dictionary = new ArrayList<>();
+
+        private MessageReader(byte[] bytes) {
+            this.buffer = ByteBuffer.wrap(bytes);
+        }
+
+        private long readVarLong() {
+            return RowCodec.readVarLong(buffer);
+        }
+
+        private String readString() {
+            long index = readVarLong();
+            if (index == 0) {
+                return null;
+            } else if (index > 1) {
+                return dictionary.get((int) (index - 2));
+            }
+            String value = new String(RowCodec.readBytes(buffer), StandardCharsets.UTF_8);
+            dictionary.add(value);
+            return value;
+        }
+
+        private Long readNullableLong() {
+            long value = readVarLong();
+            return (value == 0) ? null : RowCodec.unZigZag(value - 1);
+        }
+    }
+}
@@ -0,0 +1,319 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc.result;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Compact binary row format of the column values, one type tag per value and varint encoding of the numbers.
+ * The value types are the JDBC values (String, numbers, Boolean, the java.sql and java.time values, byte[], UUID),
+ * the other types are rejected (no Java serialization).
+ * @author supot.jdev
+ * @version 1.0
+ */
+final class RowCodec {
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte FALSE = 5;
+    private static final byte TRUE = 6;
+    private static final byte BIG_DECIMAL = 7;
+    private static final byte TIMESTAMP = 8;
+    private static final byte SQL_DATE = 9;
+    private static final byte SQL_TIME = 10;
+    private static final byte BYTES = 11;
+    private static final byte FLOAT = 12;
+    private static final byte SHORT = 13;
+    private static final byte BYTE = 14;
+    private static final byte BIG_INTEGER = 15;
+    private static final byte DATE = 16;
+    private static final byte LOCAL_DATE = 17;
+    private static final byte LOCAL_DATE_TIME = 18;
+    private static final byte LOCAL_TIME = 19;
+    private static final byte OFFSET_DATE_TIME = 20;
+    private static final byte INSTANT = 21;
+    private static final byte UUID_VALUE = 22;
+    private static final byte CHAR = 23;
+
+    private byte[] buffer = new byte[256];
+    private int size;
+
+    /**
+     * Encode the row values to internal buffer, the result is valid until next encode
+     * @param values The column values
+     * @return The total encoded bytes
+     */
+    int encode(Object[] values) {
+        size = 0;
+        writeVarLong(values.length);
+        for (Object value : values) {
+            writeValue(value);
+        }
+        return size;
+    }
+
+    byte[] buffer() {
+        return buffer;
+    }
+
+    void reset() {
+        size = 0;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    static Object[] decode(ByteBuffer in) {
+        Object[] values = new Object[(int) readVarLong(in)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readValue(in);
+        }
+        return values;
+    }
+
+    void writeValue(Object value) {
+        if (value == null) {
+            writeByte(NULL);
+        } else if (value instanceof String) {
+            writeByte(STRING);
+            writeBytes(((String) value).getBytes(StandardCharsets.UTF_8));
+        } else if (value instanceof Integer) {
+            writeByte(INT);
+            writeVarLong(zigZag((Integer) value));
+        } else if (value instanceof Long) {
+            writeByte(LONG);
+            writeVarLong(zigZag((Long) value));
+        } else if (value instanceof Double) {
+            writeByte(DOUBLE);
+            writeFixedLong(Double.doubleToRawLongBits((Double) value));
+        } else if (value instanceof Boolean) {
+            writeByte((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof BigDecimal) {
+            BigDecimal decimal = (BigDecimal) value;
+            writeByte(BIG_DECIMAL);
+            writeVarLong(zigZag(decimal.scale()));
+            writeBytes(decimal.unscaledValue().toByteArray());
+        } else if (value instanceof Timestamp) {
+            Timestamp time = (Timestamp) value;
+            writeByte(TIMESTAMP);
+            writeVarLong(zigZag(time.getTime()));
+            writeVarLong(time.getNanos());
+        } else if (value instanceof java.sql.Date) {
+            writeByte(SQL_DATE);
+            writeVarLong(zigZag(((Date) value).getTime()));
+        } else if (value instanceof Time) {
+            writeByte(SQL_TIME);
+            writeVarLong(zigZag(((Date) value).getTime()));
+        } else if (value instanceof Date) {
+            writeByte(DATE);
+            writeVarLong(zigZag(((Date) value).getTime()));
+        } else if (value instanceof byte[]) {
+            writeByte(BYTES);
+            writeBytes((byte[]) value);
+        } else if (value instanceof Float) {
+            writeByte(FLOAT);
+            writeVarLong(Float.floatToRawIntBits((Float) value) & 0xFFFFFFFFL);
+        } else if (value instanceof Short) {
+            writeByte(SHORT);
+            writeVarLong(zigZag((Short) value));
+        } else if (value instanceof Byte) {
+            writeByte(BYTE);
+            writeByte((Byte) value);
+        } else if (value instanceof BigInteger) {
+            writeByte(BIG_INTEGER);
+            writeBytes(((BigInteger) value).toByteArray());
+        } else if (value instanceof LocalDate) {
+            writeByte(LOCAL_DATE);
+            writeVarLong(zigZag(((LocalDate) value).toEpochDay()));
+        } else if (value instanceof LocalDateTime) {
+            LocalDateTime time = (LocalDateTime) value;
+            writeByte(LOCAL_DATE_TIME);
+            writeVarLong(zigZag(time.toEpochSecond(ZoneOffset.UTC)));
+            writeVarLong(time.getNano());
+        } else if (value instanceof LocalTime) {
+            writeByte(LOCAL_TIME);
+            writeVarLong(((LocalTime) value).toNanoOfDay());
+        } else if (value instanceof OffsetDateTime) {
+            OffsetDateTime time = (OffsetDateTime) value;
+            writeByte(OFFSET_DATE_TIME);
+            writeVarLong(zigZag(time.toEpochSecond()));
+            writeVarLong(time.getNano());
+            writeVarLong(zigZag(time.getOffset().getTotalSeconds()));
+        } else if (value instanceof Instant) {
+            Instant time = (Instant) value;
+            writeByte(INSTANT);
+            writeVarLong(zigZag(time.getEpochSecond()));
+            writeVarLong(time.getNano());
+        } else if (value instanceof UUID) {
+            UUID uuid = (UUID) value;
+            writeByte(UUID_VALUE);
+            writeFixedLong(uuid.getMostSignificantBits());
+            writeFixedLong(uuid.getLeastSignificantBits());
+        } else if (value instanceof Character) {
+            writeByte(CHAR);
+            writeVarLong((Character) value);
+        } else {
+            throw new IllegalArgumentException("Cannot encode value of " + value.getClass().getName());
+        }
+    }
+
+    static Object readValue(ByteBuffer in) {
+        byte tag = in.get();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return new String(readBytes(in), StandardCharsets.UTF_8);
+            case INT:
+                return (int) unZigZag(readVarLong(in));
+            case LONG:
+                return unZigZag(readVarLong(in));
+            case DOUBLE:
+                return Double.longBitsToDouble(in.getLong());
+            case FALSE:
+                return Boolean.FALSE;
+            case TRUE:
+                return Boolean.TRUE;
+            case BIG_DECIMAL: {
+                int scale = (int) unZigZag(readVarLong(in));
+                return new BigDecimal(new BigInteger(readBytes(in)), scale);
+            }
+            case TIMESTAMP: {
+                Timestamp time = new Timestamp(unZigZag(readVarLong(in)));
+                time.setNanos((int) readVarLong(in));
+                return time;
+            }
+            case SQL_DATE:
+                return new java.sql.Date(unZigZag(readVarLong(in)));
+            case SQL_TIME:
+                return new Time(unZigZag(readVarLong(in)));
+            case DATE:
+                return new Date(unZigZag(readVarLong(in)));
+            case BYTES:
+                return readBytes(in);
+            case FLOAT:
+                return Float.intBitsToFloat((int) readVarLong(in));
+            case SHORT:
+                return (short) unZigZag(readVarLong(in));
+            case BYTE:
+                return in.get();
+            case BIG_INTEGER:
+                return new BigInteger(readBytes(in));
+            case LOCAL_DATE:
+                return LocalDate.ofEpochDay(unZigZag(readVarLong(in)));
+            case LOCAL_DATE_TIME: {
+                long seconds = unZigZag(readVarLong(in));
+                return LocalDateTime.ofEpochSecond(seconds, (int) readVarLong(in), ZoneOffset.UTC);
+            }
+            case LOCAL_TIME:
+                return LocalTime.ofNanoOfDay(readVarLong(in));
+            case OFFSET_DATE_TIME: {
+                long seconds = unZigZag(readVarLong(in));
+                long nanos = readVarLong(in);
+                ZoneOffset offset = ZoneOffset.ofTotalSeconds((int) unZigZag(readVarLong(in)));
+                return OffsetDateTime.ofInstant(Instant.ofEpochSecond(seconds, nanos), offset);
+            }
+            case INSTANT: {
+                long seconds = unZigZag(readVarLong(in));
+                return Instant.ofEpochSecond(seconds, readVarLong(in));
+            }
+            case UUID_VALUE:
+                return new UUID(in.getLong(), in.getLong());
+            case CHAR:
+                return (char) readVarLong(in);
+            default:
+                throw new IllegalStateException("Invalid row format, unknown type " + tag);
+        }
+    }
+
+    void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) value;
+    }
+
+    void writeBytes(byte[] value) {
+        writeVarLong(value.length);
+        ensureCapacity(value.length);
+        System.arraycopy(value, 0, buffer, size, value.length);
+        size += value.length;
+    }
+
+    void writeFixedLong(long value) {
+        ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[size++] = (byte) (value >>> shift);
+        }
+    }
+
+    void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+    }
+
+    private void ensureCapacity(int length) {
+        if (size + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + length));
+        }
+    }
+
+    static byte[] readBytes(ByteBuffer in) {
+        byte[] value = new byte[(int) readVarLong(in)];
+        in.get(value);
+        return value;
+    }
+
+    static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
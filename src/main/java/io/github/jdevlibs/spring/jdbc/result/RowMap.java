@@ -0,0 +1,251 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc.result;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The lightweight row of the map-based query result, the rows of one result share one immutable
+ * case-insensitive header (column name to index) and each row keeps the values only (Object[]).
+ * The values of existing columns can be replaced, the columns cannot be added or removed.
+ * @author supot.jdev
+ * @version 1.0
+ */
+public final class RowMap extends AbstractMap<String, Object> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final Header header;
+    private final Object[] values;
+    private transient Set<Map.Entry<String, Object>> entrySet;
+
+    public RowMap(Header header, Object[] values) {
+        if (header.size() != values.length) {
+            throw new IllegalArgumentException("Expected " + header.size() + " values, but " + values.length);
+        }
+        this.header = header;
+        this.values = values;
+    }
+
+    public Header getHeader() {
+        return header;
+    }
+
+    /**
+     * Get the value by column index
+     * @param index The column index (0 based)
+     * @return The value
+     */
+    public Object getValue(int index) {
+        return values[index];
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return header.indexOf(key) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int index = header.indexOf(key);
+        return (index < 0) ? null : values[index];
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        int index = header.indexOf(key);
+        if (index < 0) {
+            throw new UnsupportedOperationException("No column '" + key + "' in the row");
+        }
+        Object old = values[index];
+        values[index] = value;
+        return old;
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<String, Object>> {
+        @Override
+        public int size() {
+            return values.length;
+        }
+
+        @Override
+        public Iterator<Map.Entry<String, Object>> iterator() {
+            return new Iterator<Map.Entry<String, Object>>() {
+                private int index;
+
+                @Override
+                public boolean hasNext() {
+                    return index < values.length;
+                }
+
+                @Override
+                public Map.Entry<String, Object> next() {
+                    if (index >= values.length) {
+                        throw new NoSuchElementException();
+                    }
+                    return new Entry(index++);
+                }
+            };
+        }
+    }
+
+    private final class Entry implements Map.Entry<String, Object> {
+        private final int index;
+
+        private Entry(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+            return header.getName(index);
+        }
+
+        @Override
+        public Object getValue() {
+            return values[index];
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            Object old = values[index];
+            values[index] = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return getKey().equals(e.getKey()) && Objects.equals(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return getKey().hashCode() ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+    /**
+     * The immutable column header of the rows, the column names are looked up case-insensitive.
+     * The duplicated column name is kept once (the last column).
+     */
+    public static final class Header implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String[] names;
+        private final int[] columns;
+        private final Map<String, Integer> indexes;
+
+        /**
+         * Create the header of the column names
+         * @param columnNames The column names of the result (may be duplicated)
+         */
+        public Header(String[] columnNames) {
+            Map<String, Integer> lastColumn = new HashMap<>(columnNames.length * 2);
+            for (int i = 0; i < columnNames.length; i++) {
+                lastColumn.put(toKey(columnNames[i]), i);
+            }
+
+            int size = 0;
+            String[] keptNames = new String[lastColumn.size()];
+            int[] keptColumns = new int[lastColumn.size()];
+            Map<String, Integer> keptIndexes = new HashMap<>(lastColumn.size() * 2);
+            for (int i = 0; i < columnNames.length; i++) {
+                String key = toKey(columnNames[i]);
+                if (lastColumn.get(key) == i) {
+                    keptNames[size] = columnNames[i];
+                    keptColumns[size] = i;
+                    keptIndexes.put(key, size);
+                    size++;
+                }
+            }
+            this.names = keptNames;
+            this.columns = keptColumns;
+            this.indexes = keptIndexes;
+        }
+
+        public int size() {
+            return names.length;
+        }
+
+        public String getName(int index) {
+            return names[index];
+        }
+
+        public List<String> getNames() {
+            return Collections.unmodifiableList(Arrays.asList(names));
+        }
+
+        /**
+         * Get the result set column of the row value
+         * @param index The row value index (0 based)
+         * @return The result set column index (0 based)
+         */
+        public int getColumn(int index) {
+            return columns[index];
+        }
+
+        /**
+         * Get the row value index of the column name (case-insensitive)
+         * @param name The column name
+         * @return The index (0 based), -1 when not found
+         */
+        public int indexOf(Object name) {
+            if (!(name instanceof String)) {
+                return -1;
+            }
+            Integer index = indexes.get(toKey((String) name));
+            return (index == null) ? -1 : index;
+        }
+
+        private static String toKey(String name) {
+            return name.toLowerCase(Locale.ENGLISH);
+        }
+    }
+}
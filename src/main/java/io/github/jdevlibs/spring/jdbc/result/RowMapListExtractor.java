@@ -0,0 +1,58 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc.result;
+
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.support.JdbcUtils;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Extract the query result to the list of RowMap, one header is created per result
+ * and shared by all rows (no key storage per row).
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class RowMapListExtractor implements ResultSetExtractor<List<Map<String, Object>>> {
+
+    @Override
+    public List<Map<String, Object>> extractData(ResultSet rs) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int total = metaData.getColumnCount();
+        String[] names = new String[total];
+        for (int i = 0; i < total; i++) {
+            names[i] = JdbcUtils.lookupColumnName(metaData, i + 1);
+        }
+
+        RowMap.Header header = new RowMap.Header(names);
+        int size = header.size();
+        List<Map<String, Object>> results = new ArrayList<>(Math.max(rs.getFetchSize(), 16));
+        while (rs.next()) {
+            Object[] values = new Object[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = JdbcUtils.getResultSetValue(rs, header.getColumn(i) + 1);
+            }
+            results.add(new RowMap(header, values));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,188 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc.result;
+
+import io.github.jdevlibs.spring.NestedBeanMapper;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Read-only list of query result that keeps the first rows on heap, the rest rows are written to
+ * temporary file in compact row format and read back with positional FileChannel reads on access.
+ * The file is not memory-mapped, so close() releases the file immediately (mapped buffers cannot be unmapped
+ * until they are garbage collected).
+ * Call close() to delete the temporary file when the list is no longer used.
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class SpillingList<T> extends AbstractList<T> implements RandomAccess, Closeable {
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final List<T> heapRows;
+    private final NestedBeanMapper<T> mapper;
+    private final File directory;
+    private final RowCodec codec = new RowCodec();
+    private ByteBuffer writeBuffer;
+    private Path file;
+    private FileChannel channel;
+    private long[] rowPositions = new long[0];
+    private int spillRows;
+    private long flushedSize;
+    private long fileSize;
+
+    SpillingList(int heapRows, NestedBeanMapper<T> mapper, File directory) {
+        this.heapRows = new ArrayList<>(Math.min(heapRows, 4096));
+        this.mapper = mapper;
+        this.directory = directory;
+    }
+
+    @Override
+    public T get(int index) {
+        if (index < heapRows.size()) {
+            return heapRows.get(index);
+        }
+
+        int spillIndex = index - heapRows.size();
+        if (spillIndex >= spillRows || spillIndex < 0) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+
+        long position = rowPositions[spillIndex];
+        long end = spillIndex + 1 < spillRows ? rowPositions[spillIndex + 1] : fileSize;
+        try {
+            return mapper.mapValues(RowCodec.decode(readRow(position, (int) (end - position))));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public int size() {
+        return heapRows.size() + spillRows;
+    }
+
+    /**
+     * Total rows that written to the temporary file
+     * @return The total spill rows
+     */
+    public int getSpillRows() {
+        return spillRows;
+    }
+
+    public boolean isSpilled() {
+        return spillRows > 0;
+    }
+
+    @Override
+    public void close() {
+        writeBuffer = null;
+        rowPositions = new long[0];
+        spillRows = 0;
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            channel = null;
+            file = null;
+        }
+    }
+
+    void addHeapRow(T row) {
+        heapRows.add(row);
+    }
+
+    void addSpillRow(Object[] values) throws IOException {
+        int length = codec.encode(values);
+        if (channel == null) {
+            open();
+        }
+        if (writeBuffer.remaining() < length) {
+            flush();
+        }
+
+        if (spillRows == rowPositions.length) {
+            rowPositions = Arrays.copyOf(rowPositions, Math.max(1024, spillRows * 2));
+        }
+        rowPositions[spillRows++] = fileSize;
+        if (length > writeBuffer.capacity()) {
+            writeFully(ByteBuffer.wrap(codec.buffer(), 0, length), fileSize);
+            flushedSize += length;
+        } else {
+            writeBuffer.put(codec.buffer(), 0, length);
+        }
+        fileSize += length;
+    }
+
+    private void open() throws IOException {
+        file = File.createTempFile("jdbc-spill-", ".rows", directory).toPath();
+        file.toFile().deleteOnExit();
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        writeBuffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+    }
+
+    private void flush() throws IOException {
+        if (writeBuffer.position() == 0) {
+            return;
+        }
+        writeBuffer.flip();
+        int length = writeBuffer.remaining();
+        writeFully(writeBuffer, flushedSize);
+        flushedSize += length;
+        writeBuffer.clear();
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            offset += channel.write(buffer, offset);
+        }
+    }
+
+    private ByteBuffer readRow(long position, int length) throws IOException {
+        if (position + length > flushedSize) {
+            flush();
+        }
+
+        ByteBuffer row = ByteBuffer.allocate(length);
+        while (row.hasRemaining()) {
+            if (channel.read(row, position + row.position()) < 0) {
+                throw new IOException("Unexpected end of spill file at " + (position + row.position()));
+            }
+        }
+        row.flip();
+        return row;
+    }
+}
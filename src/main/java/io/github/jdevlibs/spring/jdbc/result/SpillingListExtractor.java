@@ -0,0 +1,83 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc.result;
+
+import io.github.jdevlibs.spring.NestedBeanMapper;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Extract the query result to SpillingList, the rows after maxHeapRows are written to temporary file.
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class SpillingListExtractor<T> implements ResultSetExtractor<SpillingList<T>> {
+    private final Class<T> clazz;
+    private final int maxHeapRows;
+    private final File directory;
+
+    public SpillingListExtractor(Class<T> clazz, int maxHeapRows) {
+        this(clazz, maxHeapRows, null);
+    }
+
+    /**
+     * @param clazz The result target class
+     * @param maxHeapRows Maximum rows that keep on heap
+     * @param directory The directory of temporary file, null for java.io.tmpdir
+     */
+    public SpillingListExtractor(Class<T> clazz, int maxHeapRows, File directory) {
+        this.clazz = clazz;
+        this.maxHeapRows = maxHeapRows;
+        this.directory = directory;
+    }
+
+    @Override
+    public SpillingList<T> extractData(ResultSet rs) throws SQLException {
+        NestedBeanMapper<T> mapper = new NestedBeanMapper<>(clazz);
+        SpillingList<T> results = new SpillingList<>(maxHeapRows, mapper, directory);
+        int rowNum = 0;
+        try {
+            while (rs.next()) {
+                if (rowNum < maxHeapRows) {
+                    results.addHeapRow(mapper.mapRow(rs, rowNum));
+                } else {
+                    results.addSpillRow(mapper.readValues(rs));
+                }
+                rowNum++;
+            }
+        } catch (IOException ex) {
+            results.close();
+            throw new DataAccessResourceFailureException("Cannot write query result to temporary file", ex);
+        } catch (SQLException | RuntimeException | Error ex) {
+            // delete the temporary file of the partial result
+            try {
+                results.close();
+            } catch (UncheckedIOException closeEx) {
+                ex.addSuppressed(closeEx);
+            }
+            throw ex;
+        }
+
+        return results;
+    }
+}
@@ -0,0 +1,100 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.TypeMismatchException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author supot.jdev
+ * @version 1.0
+ */
+class ConverterRegistryTest {
+    private final ConverterRegistry registry = new ConverterRegistry();
+
+    @Test
+    void exactNumbersAreNarrowed() {
+        assertEquals(Integer.valueOf(2), registry.convert(new BigDecimal("2.00"), int.class));
+        assertEquals(Byte.valueOf((byte) -128), registry.convert(-128L, Byte.class));
+        assertEquals(Long.valueOf(Long.MAX_VALUE), registry.convert(new BigDecimal(Long.MAX_VALUE), long.class));
+        assertEquals(BigInteger.valueOf(3), registry.convert(new BigDecimal("3.0"), BigInteger.class));
+        assertEquals(new BigDecimal("0.1"), registry.convert(0.1d, BigDecimal.class));
+    }
+
+    @Test
+    void fractionIsNotTruncated() {
+        assertThrows(TypeMismatchException.class, () -> registry.convert(new BigDecimal("1.5"), Long.class));
+        assertThrows(TypeMismatchException.class, () -> registry.convert(2.5d, int.class));
+        assertThrows(TypeMismatchException.class, () -> registry.convert(new BigDecimal("3.1"), BigInteger.class));
+        assertThrows(TypeMismatchException.class, () -> registry.convert(0.5d, Boolean.class));
+    }
+
+    @Test
+    void overflowIsNotWrapped() {
+        assertThrows(TypeMismatchException.class, () -> registry.convert(300L, byte.class));
+        assertThrows(TypeMismatchException.class, () -> registry.convert(Long.MAX_VALUE, Integer.class));
+        assertThrows(TypeMismatchException.class, () -> registry.convert(1e20d, Long.class));
+        assertThrows(TypeMismatchException.class, () -> registry.convert(BigInteger.ONE.shiftLeft(64), long.class));
+    }
+
+    @Test
+    void emptyTextIsDefaultOfPrimitive() {
+        assertEquals(Boolean.FALSE, registry.convert(" ", boolean.class));
+        assertEquals(Character.valueOf('\0'), registry.convert("", char.class));
+        assertNull(registry.convert(" ", Boolean.class));
+        assertNull(registry.convert("", Character.class));
+    }
+
+    @Test
+    void flagsAreBoolean() {
+        assertEquals(Boolean.TRUE, registry.convert("Y", Boolean.class));
+        assertEquals(Boolean.TRUE, registry.convert(" yes ", boolean.class));
+        assertEquals(Boolean.TRUE, registry.convert('T', Boolean.class));
+        assertEquals(Boolean.FALSE, registry.convert("n", Boolean.class));
+        assertEquals(Boolean.FALSE, registry.convert("0", boolean.class));
+        assertEquals(Boolean.TRUE, registry.convert(2, Boolean.class));
+        assertEquals(Boolean.FALSE, registry.convert(BigDecimal.ZERO, boolean.class));
+    }
+
+    @Test
+    void enumsAreConvertedByNameOrOrdinal() {
+        assertSame(Status.ACTIVE, registry.convert("active", Status.class));
+        assertSame(Status.INACTIVE, registry.convert(" INACTIVE", Status.class));
+        assertSame(Status.INACTIVE, registry.convert(1, Status.class));
+        assertThrows(IllegalArgumentException.class, () -> registry.convert(2, Status.class));
+        assertThrows(IllegalArgumentException.class, () -> registry.convert("UNKNOWN", Status.class));
+    }
+
+    @Test
+    void registeredConverterWins() {
+        registry.register(String.class, Long.class, value -> Long.valueOf(value.replace(",", "")));
+
+        assertEquals(Long.valueOf(1234567L), registry.convert("1,234,567", long.class));
+    }
+
+    enum Status {
+        ACTIVE, INACTIVE
+    }
+}
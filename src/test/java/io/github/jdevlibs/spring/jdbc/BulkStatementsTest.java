@@ -0,0 +1,65 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc;
+
+import io.github.jdevlibs.spring.BeanColumns;
+import io.github.jdevlibs.spring.jdbc.enums.Dialects;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * @author supot.jdev
+ * @version 1.0
+ */
+class BulkStatementsTest {
+    private final BulkStatements statements = new BulkStatements(Dialects.POSTGRESQL, "CUSTOMER",
+            BeanColumns.of(Customer.class), "customerId");
+
+    @Test
+    void lastItemOfDuplicateKeyWins() {
+        Customer first = new Customer(1L, "A");
+        Customer second = new Customer(2L, "B");
+        Customer last = new Customer(1L, "C");
+
+        List<Customer> rows = statements.distinctByKeys(Arrays.asList(first, second, last));
+
+        assertEquals(Arrays.asList(second, last), rows);
+    }
+
+    @Test
+    void nullKeysAreKept() {
+        List<Customer> items = Arrays.asList(new Customer(null, "A"), new Customer(null, "B"));
+
+        assertSame(items, statements.distinctByKeys(items));
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Customer {
+        private Long customerId;
+        private String name;
+    }
+}
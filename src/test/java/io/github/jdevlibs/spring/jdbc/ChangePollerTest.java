@@ -0,0 +1,128 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc;
+
+import io.github.jdevlibs.spring.jdbc.criteria.Criteria;
+import io.github.jdevlibs.spring.jdbc.criteria.IndexParameter;
+import io.github.jdevlibs.spring.jdbc.criteria.Parameter;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author supot.jdev
+ * @version 1.0
+ */
+class ChangePollerTest {
+    private static final Timestamp T1 = Timestamp.valueOf("2024-01-01 10:00:00");
+    private static final Timestamp T2 = Timestamp.valueOf("2024-01-01 10:00:05");
+
+    private final RecordingDataSource dataSource = new RecordingDataSource().setRows(
+            new String[]{"ORDER_ID", "UPDATED_AT"}, new Object[]{11L, T1}, new Object[]{12L, T2});
+    private final List<Long> consumed = new ArrayList<>();
+    private final ChangePoller<Long> poller;
+
+    ChangePollerTest() {
+        TestDao dao = new TestDao();
+        dao.setJdbcTemplate(new JdbcTemplate(dataSource));
+        poller = new ChangePoller<>(dao, "SELECT * FROM ORDERS", new IndexParameter(),
+                (rs, rowNum) -> rs.getLong("ORDER_ID"), "UPDATED_AT", "ORDER_ID");
+        poller.setBatchSize(2);
+        poller.setMaxBatchesPerPoll(2);
+    }
+
+    @Test
+    void batchesResumeAfterTheWatermark() {
+        int rows = poller.poll(consumed::add);
+
+        assertEquals(4, rows);
+        assertEquals(Arrays.asList(11L, 12L, 11L, 12L), consumed);
+        assertEquals("SELECT * FROM (SELECT * FROM ORDERS ) TB ORDER BY UPDATED_AT ASC, ORDER_ID ASC LIMIT 2",
+                dataSource.getSqls().get(0));
+        assertEquals("SELECT * FROM (SELECT * FROM ORDERS ) TB WHERE (UPDATED_AT > ? OR (UPDATED_AT = ?"
+                + " AND ORDER_ID > ?)) ORDER BY UPDATED_AT ASC, ORDER_ID ASC LIMIT 2", dataSource.getSqls().get(1));
+        Map<Integer, Object> binds = dataSource.getBinds().get(1);
+        assertEquals(T2, binds.get(1));
+        assertEquals(T2, binds.get(2));
+        assertEquals(12L, binds.get(3));
+        assertEquals(T2, poller.getWatermark());
+        assertEquals(12L, poller.getWatermarkId());
+        assertEquals(4, poller.getPolledRows());
+    }
+
+    @Test
+    void watermarkStopsAtTheFailedRow() {
+        assertThrows(IllegalStateException.class, () -> poller.poll(id -> {
+            if (id == 12L) {
+                throw new IllegalStateException("Cannot publish " + id);
+            }
+            consumed.add(id);
+        }));
+
+        assertEquals(Arrays.asList(11L), consumed);
+        assertEquals(T1, poller.getWatermark());
+        assertEquals(11L, poller.getWatermarkId());
+    }
+
+    @Test
+    void safetyLagBoundsTheWatermark() {
+        poller.setWatermark(T1, 11L);
+        poller.setSafetyLagMillis(60000);
+        poller.setMaxBatchesPerPoll(1);
+        long before = System.currentTimeMillis();
+
+        poller.poll(consumed::add);
+
+        assertTrue(dataSource.getSqls().get(0).contains("AND ORDER_ID > ?)) AND UPDATED_AT <= ? ORDER BY"));
+        Timestamp until = (Timestamp) dataSource.getBinds().get(0).get(4);
+        assertTrue(until.getTime() <= before - 60000 + 1000 && until.getTime() >= before - 60000);
+    }
+
+    @Test
+    void watermarkIsResetByCaller() {
+        poller.setMaxBatchesPerPoll(1);
+        poller.poll(consumed::add);
+        poller.setWatermark(null, null);
+
+        poller.poll(consumed::add);
+
+        assertTrue(dataSource.getBinds().get(1).isEmpty());
+        assertEquals(dataSource.getSqls().get(0), dataSource.getSqls().get(1));
+    }
+
+    static class TestDao extends JdbcDao {
+
+        @Override
+        protected void autowiredJdbcTemplate(JdbcTemplate jdbcTemplate) {
+            setJdbcTemplate(jdbcTemplate);
+        }
+
+        @Override
+        protected void setPagingOption(StringBuilder sql, Parameter params, Criteria paging) {
+            sql.append(" LIMIT ").append(paging.getSize());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc;
+
+import io.github.jdevlibs.spring.jdbc.result.CsvExportExtractor;
+import io.github.jdevlibs.spring.jdbc.result.ExportExtractor;
+import io.github.jdevlibs.spring.jdbc.result.JsonLinesExportExtractor;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author supot.jdev
+ * @version 1.0
+ */
+class ExportExtractorTest {
+    private static final String SEPARATOR = String.valueOf((char) 0x2028);
+
+    private final RecordingDataSource dataSource = new RecordingDataSource().setRows(
+            new String[]{"id", "name", "amount"},
+            new Object[]{1L, "plain", new BigDecimal("1.50")},
+            new Object[]{2L, "a,b \"q\"\r\nline", null},
+            new Object[]{null, "tab\tback\\slash" + (char) 1 + SEPARATOR, new BigDecimal("-2")});
+
+    @Test
+    void csvFieldsAreQuotedWhenNeeded() {
+        StringWriter out = new StringWriter();
+
+        Long rows = export(new CsvExportExtractor(out));
+
+        assertEquals(Long.valueOf(3), rows);
+        assertEquals("id,name,amount\n"
+                + "1,plain,1.50\n"
+                + "2,\"a,b \"\"q\"\"\r\nline\",\n"
+                + ",tab\tback\\slash" + (char) 1 + SEPARATOR + ",-2\n", out.toString());
+    }
+
+    @Test
+    void csvDelimiterIsQuotedWithoutHeader() {
+        StringWriter out = new StringWriter();
+        CsvExportExtractor extractor = new CsvExportExtractor(out);
+        extractor.setDelimiter(';');
+        extractor.setHeader(false);
+        dataSource.setRows(new String[]{"name"}, new Object[]{"a;b"}, new Object[]{"a,b"});
+
+        export(extractor);
+
+        assertEquals("\"a;b\"\na,b\n", out.toString());
+    }
+
+    @Test
+    void jsonStringsAreEscaped() {
+        StringWriter out = new StringWriter();
+
+        Long rows = export(new JsonLinesExportExtractor(out));
+
+        assertEquals(Long.valueOf(3), rows);
+        assertEquals("{\"id\":1,\"name\":\"plain\",\"amount\":1.50}\n"
+                + "{\"id\":2,\"name\":\"a,b \\\"q\\\"\\r\\nline\",\"amount\":null}\n"
+                + "{\"id\":null,\"name\":\"tab\\tback\\\\slash\\u0001\\u2028\",\"amount\":-2}\n", out.toString());
+    }
+
+    @Test
+    void jsonKeysAreEscaped() {
+        StringWriter out = new StringWriter();
+        dataSource.setRows(new String[]{"a\"b"}, new Object[]{"x"});
+
+        export(new JsonLinesExportExtractor(out));
+
+        assertEquals("{\"a\\\"b\":\"x\"}\n", out.toString());
+    }
+
+    private Long export(ExportExtractor extractor) {
+        return new JdbcTemplate(dataSource).query("SELECT * FROM CUSTOMER WHERE ID > ?", extractor, 0);
+    }
+}
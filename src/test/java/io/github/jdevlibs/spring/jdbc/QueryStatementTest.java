@@ -0,0 +1,88 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc;
+
+import io.github.jdevlibs.spring.jdbc.criteria.IndexParameter;
+import io.github.jdevlibs.spring.jdbc.criteria.NameParameter;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * @author supot.jdev
+ * @version 1.0
+ */
+class QueryStatementTest {
+
+    @Test
+    void namedCollectionIsExpandedToPlaceholders() {
+        RecordingDataSource dataSource = new RecordingDataSource();
+        NameParameter params = new NameParameter();
+        params.add("ids", Arrays.asList(1, 2, 3));
+        params.add("name", "A");
+
+        QueryStatement statement = new QueryStatement(
+                "UPDATE CUSTOMER SET NAME = :name WHERE ID IN (:ids)", params, null);
+        statement.update(new JdbcTemplate(dataSource), null);
+
+        assertEquals("UPDATE CUSTOMER SET NAME = ? WHERE ID IN (?, ?, ?)", dataSource.getSqls().get(0));
+        Map<Integer, Object> binds = dataSource.getBinds().get(0);
+        assertEquals(4, binds.size());
+        assertEquals("A", binds.get(1));
+        assertEquals(1, binds.get(2));
+        assertEquals(2, binds.get(3));
+        assertEquals(3, binds.get(4));
+    }
+
+    @Test
+    void indexParametersAreBoundInOrder() {
+        RecordingDataSource dataSource = new RecordingDataSource();
+        IndexParameter params = new IndexParameter();
+        params.add("A");
+        params.add(10);
+
+        new QueryStatement("UPDATE CUSTOMER SET NAME = ? WHERE ID = ?", params, null)
+                .update(new JdbcTemplate(dataSource), null);
+
+        Map<Integer, Object> binds = dataSource.getBinds().get(0);
+        assertEquals("A", binds.get(1));
+        assertEquals(10, binds.get(2));
+    }
+
+    @Test
+    void rowsAreCountedWhereTheyAreRead() {
+        RecordingDataSource dataSource = new RecordingDataSource()
+                .setRows(new String[]{"ID"}, new Object[]{1}, new Object[]{2}, new Object[]{3});
+        SqlStatistics statistics = new SqlStatistics();
+
+        Object result = new QueryStatement("SELECT ID FROM CUSTOMER", new IndexParameter(), null)
+                .query(new JdbcTemplate(dataSource), rs -> {
+                    while (rs.next()) {
+                        rs.getLong(1);
+                    }
+                    return null;
+                }, null, statistics);
+
+        assertNull(result);
+        assertEquals(3L, statistics.getTopStatements().get(0).getRows());
+    }
+}
@@ -0,0 +1,204 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The test DataSource that records the prepared SQL and the bound values (no database),
+ * the queries return the rows of setRows
+ * @author supot.jdev
+ * @version 1.0
+ */
+class RecordingDataSource extends AbstractDataSource {
+    private final List<String> sqls = new ArrayList<>();
+    private final List<Map<Integer, Object>> binds = new ArrayList<>();
+    private String[] columns = new String[0];
+    private List<Object[]> rows = new ArrayList<>();
+
+    List<String> getSqls() {
+        return sqls;
+    }
+
+    List<Map<Integer, Object>> getBinds() {
+        return binds;
+    }
+
+    /**
+     * Set the rows of the queries
+     * @param columns The column labels
+     * @param rows The column values of each row
+     * @return This DataSource
+     */
+    RecordingDataSource setRows(String[] columns, Object[]... rows) {
+        this.columns = columns;
+        this.rows = Arrays.asList(rows);
+        return this;
+    }
+
+    @Override
+    public Connection getConnection() {
+        return proxy(Connection.class, (method, args) -> {
+            if (method.getName().startsWith("prepare")) {
+                sqls.add((String) args[0]);
+                Map<Integer, Object> values = new TreeMap<>();
+                binds.add(values);
+                return preparedStatement(values, columns, rows);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) {
+        return getConnection();
+    }
+
+    private static PreparedStatement preparedStatement(Map<Integer, Object> values, String[] columns,
+                                                       List<Object[]> rows) {
+        return proxy(PreparedStatement.class, (method, args) -> {
+            if (method.getName().startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                values.put((Integer) args[0], args[1]);
+            } else if ("executeUpdate".equals(method.getName())) {
+                return 1;
+            } else if ("executeQuery".equals(method.getName())) {
+                return resultSet(columns, rows);
+            }
+            return null;
+        });
+    }
+
+    private static ResultSet resultSet(String[] columns, List<Object[]> rows) {
+        int[] row = {-1};
+        boolean[] wasNull = {false};
+        ResultSetMetaData metaData = proxy(ResultSetMetaData.class, (method, args) -> {
+            switch (method.getName()) {
+                case "getColumnCount":
+                    return columns.length;
+                case "getColumnLabel":
+                case "getColumnName":
+                    return columns[(Integer) args[0] - 1];
+                case "getColumnType":
+                    return sqlTypeOf(rows, (Integer) args[0]);
+                default:
+                    return null;
+            }
+        });
+        return proxy(ResultSet.class, (method, args) -> {
+            String name = method.getName();
+            if ("next".equals(name)) {
+                return ++row[0] < rows.size();
+            } else if ("getMetaData".equals(name)) {
+                return metaData;
+            } else if ("wasNull".equals(name)) {
+                return wasNull[0];
+            } else if ("getRow".equals(name)) {
+                return row[0] + 1;
+            } else if ("findColumn".equals(name)) {
+                return Arrays.asList(columns).indexOf(args[0]) + 1;
+            } else if (name.startsWith("get") && args != null && args.length > 0) {
+                int index = (args[0] instanceof Integer) ? (Integer) args[0] - 1 : indexOf(columns, (String) args[0]);
+                Object value = rows.get(row[0])[index];
+                wasNull[0] = (value == null);
+                return convert(value, method.getReturnType());
+            }
+            return null;
+        });
+    }
+
+    private static int indexOf(String[] columns, String label) {
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i].equalsIgnoreCase(label)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown column " + label);
+    }
+
+    private static int sqlTypeOf(List<Object[]> rows, int column) {
+        for (Object[] row : rows) {
+            Object value = row[column - 1];
+            if (value instanceof Integer || value instanceof Long) {
+                return Types.BIGINT;
+            } else if (value instanceof Number) {
+                return Types.NUMERIC;
+            } else if (value != null) {
+                return Types.VARCHAR;
+            }
+        }
+        return Types.VARCHAR;
+    }
+
+    private static Object convert(Object value, Class<?> type) {
+        if (value == null) {
+            return null;
+        } else if (type == String.class) {
+            return value.toString();
+        } else if (value instanceof Number) {
+            Number number = (Number) value;
+            if (type == int.class || type == Integer.class) {
+                return number.intValue();
+            } else if (type == long.class || type == Long.class) {
+                return number.longValue();
+            } else if (type == double.class || type == Double.class) {
+                return number.doubleValue();
+            } else if (type == BigDecimal.class) {
+                return new BigDecimal(number.toString());
+            }
+        }
+        return value;
+    }
+
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(RecordingDataSource.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    Object result = handler.handle(method, args);
+                    return (result != null) ? result : defaultValue(method.getReturnType());
+                }));
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == double.class) {
+            return 0d;
+        }
+        return null;
+    }
+
+    private interface Handler {
+        Object handle(Method method, Object[] args) throws Exception;
+    }
+}
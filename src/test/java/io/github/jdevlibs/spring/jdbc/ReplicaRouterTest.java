@@ -0,0 +1,68 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author supot.jdev
+ * @version 1.0
+ */
+class ReplicaRouterTest {
+
+    @Test
+    void failedReplicaIsEjected() {
+        ReplicaRouter router = new ReplicaRouter(Arrays.asList(new JdbcTemplate(), new JdbcTemplate()));
+        ReplicaRouter.Replica failed = router.getReplicas().get(0);
+        ReplicaRouter.Replica other = router.getReplicas().get(1);
+
+        router.recordFailure(failed);
+
+        assertTrue(failed.isEjected());
+        for (int i = 0; i < 10; i++) {
+            assertSame(other, router.select());
+        }
+    }
+
+    @Test
+    void allEjectedGoesToPrimary() {
+        ReplicaRouter router = new ReplicaRouter(Arrays.asList(new JdbcTemplate()));
+        router.recordFailure(router.getReplicas().get(0));
+
+        assertNull(router.select());
+    }
+
+    @Test
+    void replicaIsTriedAgainAfterEjection() {
+        ReplicaRouter router = new ReplicaRouter(Arrays.asList(new JdbcTemplate()));
+        router.setEjectionMillis(0);
+        ReplicaRouter.Replica replica = router.getReplicas().get(0);
+        router.recordFailure(replica);
+
+        assertSame(replica, router.select());
+        replica.recordLatency(1000);
+        assertFalse(replica.isEjected());
+    }
+}
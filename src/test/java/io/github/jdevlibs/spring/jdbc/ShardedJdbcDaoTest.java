@@ -0,0 +1,145 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc;
+
+import io.github.jdevlibs.spring.jdbc.criteria.Criteria;
+import io.github.jdevlibs.spring.jdbc.criteria.IndexParameter;
+import io.github.jdevlibs.spring.jdbc.criteria.Parameter;
+import lombok.Data;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author supot.jdev
+ * @version 1.0
+ */
+class ShardedJdbcDaoTest {
+    private static final String[] COLUMNS = {"id", "name"};
+
+    private final RecordingDataSource first = new RecordingDataSource().setRows(COLUMNS,
+            new Object[]{1L, "A"}, new Object[]{3L, "C"}, new Object[]{5L, "E"}, new Object[]{7L, null});
+    private final RecordingDataSource second = new RecordingDataSource().setRows(COLUMNS,
+            new Object[]{2L, "B"}, new Object[]{4L, "D"}, new Object[]{6L, "F"});
+    private final TestDao dao = new TestDao();
+
+    ShardedJdbcDaoTest() {
+        dao.setShards(Arrays.asList(new JdbcTemplate(first), new JdbcTemplate(second)));
+    }
+
+    @AfterEach
+    void destroy() {
+        dao.destroy();
+    }
+
+    @Test
+    void sortedPagesAreMergedAcrossShards() {
+        Criteria criteria = criteria(2, 2);
+        criteria.addSorts("name", "ASC");
+
+        List<Customer> items = dao.queryToPaging("SELECT * FROM CUSTOMER WHERE ID > ?", params(), criteria,
+                Customer.class);
+
+        assertEquals(Arrays.asList(3L, 4L), idsOf(items));
+        assertTrue(first.getSqls().get(0).endsWith("ORDER BY name ASC LIMIT 4 OFFSET 0"));
+        assertTrue(second.getSqls().get(0).endsWith("ORDER BY name ASC LIMIT 4 OFFSET 0"));
+    }
+
+    @Test
+    void descendingSortPutsNullsFirst() {
+        RecordingDataSource descFirst = new RecordingDataSource().setRows(COLUMNS,
+                new Object[]{7L, null}, new Object[]{5L, "E"}, new Object[]{3L, "C"}, new Object[]{1L, "A"});
+        RecordingDataSource descSecond = new RecordingDataSource().setRows(COLUMNS,
+                new Object[]{6L, "F"}, new Object[]{4L, "D"}, new Object[]{2L, "B"});
+        dao.setShards(Arrays.asList(new JdbcTemplate(descFirst), new JdbcTemplate(descSecond)));
+        Criteria criteria = criteria(1, 3);
+        criteria.addSorts("name", "DESC");
+
+        List<Customer> items = dao.queryToPaging("SELECT * FROM CUSTOMER WHERE ID > ?", params(), criteria,
+                Customer.class);
+
+        assertEquals(Arrays.asList(7L, 6L, 5L), idsOf(items));
+    }
+
+    @Test
+    void unsortedPageSkipsTheOffsetOfAllShards() {
+        List<Customer> items = dao.queryToPaging("SELECT * FROM CUSTOMER WHERE ID > ?", params(), criteria(2, 3),
+                Customer.class);
+
+        assertEquals(Arrays.asList(7L, 2L, 4L), idsOf(items));
+    }
+
+    @Test
+    void nullPagingReturnsAllRowsOfAllShards() {
+        Criteria criteria = new Criteria();
+        criteria.addSorts("id", "ASC");
+
+        List<Customer> items = dao.queryToPaging("SELECT * FROM CUSTOMER WHERE ID > ?", params(), criteria,
+                Customer.class);
+
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L, 6L, 7L), idsOf(items));
+    }
+
+    private static Criteria criteria(int page, int size) {
+        Criteria criteria = new Criteria();
+        criteria.setPage(page);
+        criteria.setSize(size);
+        return criteria;
+    }
+
+    private static IndexParameter params() {
+        IndexParameter params = new IndexParameter();
+        params.add(0);
+        return params;
+    }
+
+    private static List<Long> idsOf(List<Customer> items) {
+        List<Long> ids = new ArrayList<>(items.size());
+        for (Customer item : items) {
+            ids.add(item.getId());
+        }
+        return ids;
+    }
+
+    static class TestDao extends ShardedJdbcDao {
+
+        @Override
+        protected void autowiredJdbcTemplate(JdbcTemplate jdbcTemplate) {
+            setJdbcTemplate(jdbcTemplate);
+        }
+
+        @Override
+        protected void setPagingOption(StringBuilder sql, Parameter params, Criteria paging) {
+            if (paging.isNotNullPaging()) {
+                sql.append(" LIMIT ").append(paging.getSize()).append(" OFFSET ").append(paging.getMySqlOffset());
+            }
+        }
+    }
+
+    @Data
+    public static class Customer {
+        private Long id;
+        private String name;
+    }
+}
@@ -0,0 +1,94 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc;
+
+import io.github.jdevlibs.spring.jdbc.result.SpillingList;
+import io.github.jdevlibs.spring.jdbc.result.SpillingListExtractor;
+import lombok.Data;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author supot.jdev
+ * @version 1.0
+ */
+class SpillingListTest {
+
+    @Test
+    void spilledRowsAreReadBack() throws IOException {
+        char[] chars = new char[100 * 1024];
+        Arrays.fill(chars, 'L');
+        String large = new String(chars);
+        Object[][] rows = new Object[10][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new Object[]{(long) i, (i == 5) ? large : (i == 7) ? null : "NAME-" + i};
+        }
+
+        File directory = Files.createTempDirectory("spill-test").toFile();
+        RecordingDataSource dataSource = new RecordingDataSource().setRows(new String[]{"id", "name"}, rows);
+        SpillingList<Customer> list = new JdbcTemplate(dataSource).query("SELECT ID, NAME FROM CUSTOMER WHERE ID > ?",
+                new SpillingListExtractor<>(Customer.class, 3, directory), 0);
+        try {
+            assertEquals(10, list.size());
+            assertEquals(7, list.getSpillRows());
+            for (int i = rows.length - 1; i >= 0; i--) {
+                assertEquals(rows[i][0], list.get(i).getId());
+                assertEquals(rows[i][1], list.get(i).getName());
+            }
+            assertThrows(IndexOutOfBoundsException.class, () -> list.get(10));
+        } finally {
+            list.close();
+        }
+
+        assertEquals(Integer.valueOf(0), Integer.valueOf(directory.list().length));
+        assertFalse(list.isSpilled());
+        Files.delete(directory.toPath());
+    }
+
+    @Test
+    void heapRowsDoNotCreateFile() throws IOException {
+        File directory = Files.createTempDirectory("spill-test").toFile();
+        RecordingDataSource dataSource = new RecordingDataSource().setRows(new String[]{"id", "name"},
+                new Object[]{1L, "A"}, new Object[]{2L, null});
+        try (SpillingList<Customer> list = new JdbcTemplate(dataSource).query("SELECT ID, NAME FROM CUSTOMER WHERE ID > ?",
+                new SpillingListExtractor<>(Customer.class, 3, directory), 0)) {
+            assertEquals(2, list.size());
+            assertFalse(list.isSpilled());
+            assertEquals(2L, list.get(1).getId().longValue());
+            assertNull(list.get(1).getName());
+            assertEquals(Integer.valueOf(0), Integer.valueOf(directory.list().length));
+        } finally {
+            Files.delete(directory.toPath());
+        }
+    }
+
+    @Data
+    public static class Customer {
+        private Long id;
+        private String name;
+    }
+}
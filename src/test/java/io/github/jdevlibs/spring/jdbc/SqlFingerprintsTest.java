@@ -0,0 +1,66 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * @author supot.jdev
+ * @version 1.0
+ */
+class SqlFingerprintsTest {
+
+    @Test
+    void literalsAreReplaced() {
+        assertEquals("SELECT * FROM T WHERE ID = ? AND NAME = ? AND RATE > ?",
+                SqlFingerprints.normalize("SELECT * FROM T WHERE ID = 10 AND NAME = 'O''Neil' AND RATE > 1.5e-3"));
+    }
+
+    @Test
+    void inListsAreCollapsed() {
+        String fingerprint = "SELECT * FROM T WHERE ID IN (...) AND CODE in (...)";
+
+        assertEquals(fingerprint, SqlFingerprints.normalize("SELECT * FROM T WHERE ID IN (1, 2, 3) AND CODE in ('A')"));
+        assertEquals(fingerprint, SqlFingerprints.normalize("SELECT * FROM T WHERE ID IN (?,?) AND CODE in(?)"));
+    }
+
+    @Test
+    void subQueryIsNotCollapsed() {
+        assertEquals("SELECT * FROM T WHERE ID IN (SELECT ID FROM S WHERE X = ?)",
+                SqlFingerprints.normalize("SELECT * FROM T WHERE ID IN (SELECT ID FROM S WHERE X = 1)"));
+    }
+
+    @Test
+    void commentsAndWhitespacesAreCollapsed() {
+        assertEquals("SELECT A FROM T WHERE B = ?",
+                SqlFingerprints.normalize("SELECT  A -- first\n FROM /* table */ T\n\tWHERE B = 2 "));
+    }
+
+    @Test
+    void identifiersKeepTheirDigits() {
+        assertEquals("SELECT COL1, \"Col 2\", [3D], T2.X FROM TABLE_2024 T2 WHERE :p1 = ?",
+                SqlFingerprints.normalize("SELECT COL1, \"Col 2\", [3D], T2.X FROM TABLE_2024 T2 WHERE :p1 = 7"));
+    }
+
+    @Test
+    void nullSqlHasNoFingerprint() {
+        assertNull(SqlFingerprints.of(null));
+    }
+}
@@ -0,0 +1,151 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc.result;
+
+import io.github.jdevlibs.spring.jdbc.criteria.Criteria;
+import io.github.jdevlibs.spring.jdbc.criteria.Paging;
+import lombok.Data;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author supot.jdev
+ * @version 1.0
+ */
+class PagingCodecTest {
+    private final PagingCodec<Item> codec = PagingCodec.of(Item.class);
+
+    @Test
+    void nullPropertiesRoundTrip() {
+        Item item = new Item();
+        item.setCount(7);
+
+        Item copy = codec.decodeList(codec.encodeList(Collections.singletonList(item))).get(0);
+
+        assertEquals(item, copy);
+        assertNull(copy.getId());
+        assertNull(copy.getName());
+        assertNull(copy.getAmount());
+    }
+
+    @Test
+    void nullSortDirectionRoundTrips() {
+        Criteria criteria = new Criteria();
+        criteria.setPage(2);
+        criteria.setSize(10);
+        criteria.setSorts(new LinkedHashMap<>());
+        criteria.getSorts().put("name", null);
+        criteria.getSorts().put("id", "DESC");
+        Paging<Item> paging = new Paging<>();
+        paging.setItems(new ArrayList<>());
+        paging.setCriteria(criteria);
+
+        Criteria copy = codec.decode(codec.encode(paging)).getCriteria();
+
+        assertEquals(Arrays.asList("name", "id"), new ArrayList<>(copy.getSorts().keySet()));
+        assertNull(copy.getSorts().get("name"));
+        assertEquals("DESC", copy.getSorts().get("id"));
+        assertEquals(Integer.valueOf(2), copy.getPage());
+        assertEquals(Integer.valueOf(10), copy.getSize());
+    }
+
+    @Test
+    void bigDecimalScaleIsKept() {
+        List<Item> items = new ArrayList<>();
+        for (String value : new String[]{"1.500", "-0.01", "1E+3", "0", "123456789012345678901234567890.1"}) {
+            Item item = new Item();
+            item.setAmount(new BigDecimal(value));
+            items.add(item);
+        }
+
+        List<Item> copy = codec.decodeList(codec.encodeList(items));
+
+        for (int i = 0; i < items.size(); i++) {
+            assertEquals(items.get(i).getAmount(), copy.get(i).getAmount());
+            assertEquals(items.get(i).getAmount().scale(), copy.get(i).getAmount().scale());
+        }
+    }
+
+    @Test
+    void negativeNumbersRoundTrip() {
+        Item item = new Item();
+        item.setId(Long.MIN_VALUE);
+        item.setCount(Integer.MIN_VALUE);
+        item.setLevel((short) -1);
+        item.setCode(Character.MAX_VALUE);
+        item.setCreatedAt(LocalDateTime.of(1900, 1, 1, 0, 0, 0, 1));
+        Item max = new Item();
+        max.setId(Long.MAX_VALUE);
+        max.setCount(-1);
+
+        List<Item> copy = codec.decodeList(codec.encodeList(Arrays.asList(item, max)));
+
+        assertEquals(item, copy.get(0));
+        assertEquals(max, copy.get(1));
+    }
+
+    @Test
+    void emptyPageRoundTrips() {
+        Paging<Item> paging = new Paging<>();
+        paging.setItems(new ArrayList<>());
+        paging.setTotalElements(0);
+        paging.setFirst(true);
+        paging.setLast(true);
+
+        Paging<Item> copy = codec.decode(codec.encode(paging));
+
+        assertTrue(copy.getItems().isEmpty());
+        assertEquals(0L, copy.getTotalElements());
+        assertTrue(copy.isFirst() && copy.isLast());
+        assertNull(copy.getCriteria());
+        assertNull(codec.decodeList(codec.encodeList(null)));
+    }
+
+    @Test
+    void unsupportedPropertyTypeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> PagingCodec.of(Counter.class));
+    }
+
+    @Data
+    public static class Item {
+        private Long id;
+        private int count;
+        private Short level;
+        private Character code;
+        private String name;
+        private BigDecimal amount;
+        private LocalDateTime createdAt;
+    }
+
+    @Data
+    public static class Counter {
+        private AtomicInteger value;
+    }
+}
@@ -0,0 +1,89 @@
+/*  ---------------------------------------------------------------------------
+ *  * Copyright 2020-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      https://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *  ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.jdbc.result;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author supot.jdev
+ * @version 1.0
+ */
+class RowCodecTest {
+
+    @Test
+    void jdbcValuesRoundTrip() {
+        Timestamp timestamp = new Timestamp(-1234567L);
+        timestamp.setNanos(123456789);
+        Object[] values = {null, "text", -7, Long.MIN_VALUE, 1.25d, true, false, new BigDecimal("-12.340"),
+                timestamp, new java.sql.Date(86400000L), new Time(3600000L), new Date(42L), 2.5f, (short) -3,
+                (byte) 9, new BigInteger("-123456789012345678901234567890"), LocalDate.of(1969, 12, 31),
+                LocalDateTime.of(2024, 2, 29, 23, 59, 58, 999), LocalTime.of(13, 14, 15, 16),
+                OffsetDateTime.of(2024, 1, 2, 3, 4, 5, 6, ZoneOffset.ofHours(-5)), Instant.ofEpochSecond(-5, 7),
+                new UUID(-1L, 42L), 'x'};
+
+        Object[] decoded = roundTrip(values);
+
+        assertEquals(Arrays.asList(values), Arrays.asList(decoded));
+        assertEquals(values[8].getClass(), decoded[8].getClass());
+        assertEquals(values[11].getClass(), decoded[11].getClass());
+    }
+
+    @Test
+    void bytesRoundTrip() {
+        byte[] bytes = {0, -1, 127, -128};
+
+        Object[] decoded = roundTrip(new Object[]{bytes, new byte[0]});
+
+        assertTrue(Arrays.equals(bytes, (byte[]) decoded[0]));
+        assertEquals(Integer.valueOf(0), Integer.valueOf(((byte[]) decoded[1]).length));
+    }
+
+    @Test
+    void unsupportedValueIsRejected() {
+        RowCodec codec = new RowCodec();
+
+        assertThrows(IllegalArgumentException.class, () -> codec.encode(new Object[]{new StringBuilder("A")}));
+    }
+
+    private static Object[] roundTrip(Object[] values) {
+        RowCodec codec = new RowCodec();
+        int length = codec.encode(values);
+        ByteBuffer in = ByteBuffer.wrap(codec.buffer(), 0, length);
+        Object[] decoded = RowCodec.decode(in);
+        assertEquals(Integer.valueOf(0), Integer.valueOf(in.remaining()));
+        return decoded;
+    }
+}